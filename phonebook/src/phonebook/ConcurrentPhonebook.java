@@ -0,0 +1,226 @@
+package phonebook;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import phonebook.hashes.*;
+
+/**
+ * <p>{@link ConcurrentPhonebook} offers the operations of a {@link Phonebook} to many threads at once. It is not a
+ * subclass of {@link Phonebook}: instead of a single pair of hash tables behind one global lock, it splits both
+ * directions into <b>stripes</b>. Every stripe owns a names-to-numbers and a numbers-to-names {@link HashTable},
+ * guarded by its own read / write lock, and every key lives in the stripe its hash code selects. Lookups only take the read lock of one stripe, so they run in parallel
+ * with each other and with any update that touches other stripes.</p>
+ *
+ * <p>A name and its number usually fall in different stripes. {@link #addEntry(String, String)} and
+ * {@link #deleteEntry(String, String)} write-lock every stripe that they touch, in ascending order so that they
+ * cannot deadlock, and only then update both directions. No reader can therefore see a name without its number,
+ * or the other way round. When an update replaces an existing entry, the stale reverse mapping may sit in yet another
+ * stripe; the update then retries with that stripe locked as well.</p>
+ *
+ * @author Keshab Acharya!
+ * @see Phonebook
+ * @see CollisionResolver
+ * @see ConcurrentPhonebookBenchmark
+ */
+public class ConcurrentPhonebook {
+
+    /**
+     * The number of stripes of a {@link ConcurrentPhonebook} built with the two-argument constructor.
+     */
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final HashTable[] namesToNumbers;
+    private final HashTable[] numbersToNames;
+    private final ReentrantReadWriteLock[] locks;
+    private final AtomicInteger count;
+
+    /**
+     * Instantiates a new {@link ConcurrentPhonebook} with {@link #DEFAULT_STRIPES} stripes.
+     *
+     * @param namesToNumbersHash The {@link CollisionResolver} of the tables with <b>peoples' names</b> as keys.
+     * @param numbersToNamesHash The {@link CollisionResolver} of the tables with <b>phone numbers</b> as keys.
+     * @see CollisionResolver
+     */
+    public ConcurrentPhonebook(CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash) {
+        this(namesToNumbersHash, numbersToNamesHash, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Instantiates a new {@link ConcurrentPhonebook} with the given number of stripes. More stripes let more
+     * updates run in parallel, at the cost of two small tables per stripe.
+     *
+     * @param namesToNumbersHash The {@link CollisionResolver} of the tables with <b>peoples' names</b> as keys.
+     * @param numbersToNamesHash The {@link CollisionResolver} of the tables with <b>phone numbers</b> as keys.
+     * @param stripes The number of stripes.
+     * @throws IllegalArgumentException if stripes is not positive.
+     */
+    public ConcurrentPhonebook(CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash, int stripes) {
+        if(stripes < 1)
+            throw new IllegalArgumentException("Provided: stripes=" + stripes);
+        namesToNumbers = new HashTable[stripes];
+        numbersToNames = new HashTable[stripes];
+        locks = new ReentrantReadWriteLock[stripes];
+        for(int i = 0; i < stripes; i++) {
+            namesToNumbers[i] = Phonebook.createTable(namesToNumbersHash);
+            numbersToNames[i] = Phonebook.createTable(numbersToNamesHash);
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        count = new AtomicInteger();
+    }
+
+    // The tables reduce the same hash code modulo a prime, so mix in the high bits before picking a stripe.
+    private int stripeOf(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h & 0x7fffffff) % locks.length;
+    }
+
+    // The distinct stripes of the non-null keys, in ascending order.
+    private int[] stripesOf(String... keys) {
+        int[] stripes = new int[keys.length];
+        int n = 0;
+        for(String key : keys) {
+            if(key != null)
+                stripes[n++] = stripeOf(key);
+        }
+        Arrays.sort(stripes, 0, n);
+        int distinct = 0;
+        for(int i = 0; i < n; i++) {
+            if(distinct == 0 || stripes[distinct - 1] != stripes[i])
+                stripes[distinct++] = stripes[i];
+        }
+        return Arrays.copyOf(stripes, distinct);
+    }
+
+    // Both arrays are sorted.
+    private static boolean covers(int[] held, int[] needed) {
+        int i = 0;
+        for(int stripe : needed) {
+            while(i < held.length && held[i] < stripe)
+                i++;
+            if(i == held.length || held[i] != stripe)
+                return false;
+        }
+        return true;
+    }
+
+    private void lockAll(int[] stripes) {
+        for(int stripe : stripes)
+            locks[stripe].writeLock().lock();
+    }
+
+    private void unlockAll(int[] stripes) {
+        for(int i = stripes.length - 1; i >= 0; i--)
+            locks[stripes[i]].writeLock().unlock();
+    }
+
+    /** Retrieves the phone number associated with the provided full name. If the name is not in the database,
+     * this method returns {@code null}.
+     * @param name The full name of the owner of the phone number that is being searched for.
+     * @return The phone number associated with name, or {@code null} if name is {@code null} or if name
+     * is not in the {@link ConcurrentPhonebook}.
+     */
+    public String getNumberOf(String name) {
+        if(name == null)
+            return null;
+        int stripe = stripeOf(name);
+        ReentrantReadWriteLock.ReadLock lock = locks[stripe].readLock();
+        lock.lock();
+        try {
+            return namesToNumbers[stripe].valueOf(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Retrieves the full name of the owner of the provided phone number. If the phone number is not in the database,
+     * this method returns {@code null}.
+     * @param number The phone number whose owner is being searched for.
+     * @return The full name of the owner of number, or {@code null} if number is {@code null} or if number
+     * is not in the {@link ConcurrentPhonebook}.
+     */
+    public String getOwnerOf(String number) {
+        if(number == null)
+            return null;
+        int stripe = stripeOf(number);
+        ReentrantReadWriteLock.ReadLock lock = locks[stripe].readLock();
+        lock.lock();
+        try {
+            return numbersToNames[stripe].valueOf(number);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Adds the tuple &lt; name, number &gt; in the {@link ConcurrentPhonebook}, atomically in both directions.
+     * If either name or number are already in the collection, then the entire entry is <b>updated</b>.
+     * @param name The full name of the number's owner.
+     * @param number The phone number of the person.
+     * @throws IllegalArgumentException if either name or number is {@code null}.
+     */
+    public void addEntry(String name, String number) {
+        if(name == null || number == null)
+            throw new IllegalArgumentException("Provided: name=" + name + " and number= " + number);
+        int nameStripe = stripeOf(name), numberStripe = stripeOf(number);
+        int[] held = stripesOf(name, number);
+        while(true) {
+            int[] needed;
+            lockAll(held);
+            try {
+                String oldNumber = namesToNumbers[nameStripe].valueOf(name);
+                String oldOwner = numbersToNames[numberStripe].valueOf(number);
+                needed = stripesOf(name, number, oldNumber, oldOwner);
+                if(covers(held, needed)) {
+                    // The same steps as Phonebook.addEntry(), on the stripes of every key involved.
+                    namesToNumbers[nameStripe].putValue(name, number);
+                    numbersToNames[numberStripe].putValue(number, name);
+                    if(oldNumber != null && !oldNumber.equals(number))
+                        numbersToNames[stripeOf(oldNumber)].removeValue(oldNumber);
+                    if(oldOwner != null && !oldOwner.equals(name))
+                        namesToNumbers[stripeOf(oldOwner)].removeValue(oldOwner);
+                    count.addAndGet((oldNumber == null ? 1 : 0) - (oldOwner != null && !oldOwner.equals(name) ? 1 : 0));
+                    return;
+                }
+            } finally {
+                unlockAll(held);
+            }
+            held = needed; // Lock the stripes of the stale mappings too, and look again.
+        }
+    }
+
+    /** Deletes the entry characterized by the arguments provided, atomically in both directions. If the entry is
+     * <b>not</b> contained by this {@link ConcurrentPhonebook} instance, this method has <b>no effect</b>.
+     * @param name The &quot;owner&quot; part of the &lt; owner, phone number &gt; tuple.
+     * @param number The &quot;number&quot; part of the &lt; owner, phone number &gt; tuple.
+     * @throws IllegalArgumentException if either name or number is {@code null}.
+     */
+    public void deleteEntry(String name, String number) {
+        if(number == null || name == null)
+            throw new IllegalArgumentException("Provided: name=" + name + " and number= " + number);
+        int[] held = stripesOf(name, number);
+        lockAll(held);
+        try {
+            if(namesToNumbers[stripeOf(name)].removeValue(name) != null)
+                count.decrementAndGet();
+            numbersToNames[stripeOf(number)].removeValue(number);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /** Returns the number of entries in the phonebook.
+     * @return the number of entries in the phonebook.
+     */
+    public int size() {
+        return count.get();
+    }
+
+    /** Queries the phonebook for emptiness.
+     * @return {@code true} if, and only if, there are 0 entries in this {@link ConcurrentPhonebook}, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,141 @@
+package phonebook;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import phonebook.hashes.CollisionResolver;
+
+/**
+ * <p>{@link ConcurrentPhonebookBenchmark} measures the lookup throughput of a {@link ConcurrentPhonebook} as the
+ * number of reader threads doubles from 1 up to a maximum (16 by default), next to a {@link Phonebook} behind a
+ * single global lock. Every reader looks up random names and numbers of a preloaded phonebook for a fixed amount
+ * of time; one writer thread keeps updating entries in the background, so that the locks see some contention.</p>
+ *
+ * <p>Run it with {@code java phonebook.ConcurrentPhonebookBenchmark [maxThreads] [entries] [millisPerRun]}. The
+ * speedup column is relative to a single reader of the same phonebook, so it only approaches the number of threads
+ * on a machine with at least as many cores.</p>
+ *
+ * @author Keshab Acharya!
+ * @see ConcurrentPhonebook
+ */
+public class ConcurrentPhonebookBenchmark {
+
+    private static final long SEED = 47;
+
+    private interface Lookups {
+        String getNumberOf(String name);
+        String getOwnerOf(String number);
+        void addEntry(String name, String number);
+    }
+
+    private static String name(int i) {
+        return "Person #" + i;
+    }
+
+    private static String number(int i) {
+        return String.format("%03d-%03d-%04d", i / 10000000 % 1000, i / 10000 % 1000, i % 10000);
+    }
+
+    /* Returns the lookups per second of the given number of readers. The keys are built before the clock starts, so
+     * that the readers spend their time in lookups rather than in formatting strings. */
+    private static double run(Lookups phonebook, int readers, String[] names, String[] numbers, long millis)
+            throws InterruptedException {
+        int entries = names.length;
+        LongAdder lookups = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] threads = new Thread[readers + 1];
+        for(int t = 0; t < readers; t++) {
+            Random rng = new Random(SEED + t);
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch(InterruptedException e) {
+                    return;
+                }
+                long done = 0;
+                while((done & 1023) != 0 || System.nanoTime() < deadline[0]) {
+                    int i = rng.nextInt(entries);
+                    if((done & 1) == 0)
+                        phonebook.getNumberOf(names[i]);
+                    else
+                        phonebook.getOwnerOf(numbers[i]);
+                    done++;
+                }
+                lookups.add(done);
+            });
+        }
+        Random writerRng = new Random(SEED - 1);
+        threads[readers] = new Thread(() -> {
+            try {
+                start.await();
+            } catch(InterruptedException e) {
+                return;
+            }
+            while(System.nanoTime() < deadline[0]) {
+                int i = writerRng.nextInt(entries);
+                phonebook.addEntry(names[i], numbers[i]);
+                Thread.yield();
+            }
+        });
+        for(Thread thread : threads)
+            thread.start();
+        deadline[0] = System.nanoTime() + millis * 1000000L;
+        start.countDown();
+        for(Thread thread : threads)
+            thread.join();
+        return lookups.sum() * 1000.0 / millis;
+    }
+
+    private static void report(String title, Lookups phonebook, int maxThreads, String[] names, String[] numbers,
+            long millis) throws InterruptedException {
+        System.out.println(title);
+        System.out.println("threads      lookups/s   speedup");
+        run(phonebook, 1, names, numbers, millis); // Warm up the JIT.
+        double single = 0;
+        for(int readers = 1; readers <= maxThreads; readers *= 2) {
+            double throughput = run(phonebook, readers, names, numbers, millis);
+            if(readers == 1)
+                single = throughput;
+            System.out.printf("%7d %14.0f %9.2f%n", readers, throughput, throughput / single);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args The maximum number of reader threads, the number of entries and the duration of every run in
+     *             milliseconds, all optional.
+     * @throws InterruptedException if the benchmark is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int entries = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        String[] names = new String[entries], numbers = new String[entries];
+        for(int i = 0; i < entries; i++) {
+            names[i] = name(i);
+            numbers[i] = number(i);
+        }
+        ConcurrentPhonebook striped = new ConcurrentPhonebook(CollisionResolver.LINEAR_PROBING,
+                CollisionResolver.LINEAR_PROBING);
+        Phonebook global = new Phonebook(CollisionResolver.LINEAR_PROBING, CollisionResolver.LINEAR_PROBING);
+        for(int i = 0; i < entries; i++) {
+            striped.addEntry(names[i], numbers[i]);
+            global.addEntry(names[i], numbers[i]);
+        }
+
+        report("ConcurrentPhonebook, " + ConcurrentPhonebook.DEFAULT_STRIPES + " stripes:", new Lookups() {
+            public String getNumberOf(String name) { return striped.getNumberOf(name); }
+            public String getOwnerOf(String number) { return striped.getOwnerOf(number); }
+            public void addEntry(String name, String number) { striped.addEntry(name, number); }
+        }, maxThreads, names, numbers, millis);
+        report("Phonebook behind a global lock:", new Lookups() {
+            public synchronized String getNumberOf(String name) { return global.getNumberOf(name); }
+            public synchronized String getOwnerOf(String number) { return global.getOwnerOf(number); }
+            public synchronized void addEntry(String name, String number) { global.addEntry(name, number); }
+        }, maxThreads, names, numbers, millis);
+    }
+}
@@ -0,0 +1,483 @@
+package phonebook;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import phonebook.hashes.*;
+import phonebook.utils.KVPair;
+
+/**
+ * <p>{@link JournaledPhonebook} keeps a {@link Phonebook} in memory and makes its entries survive restarts. It
+ * appends every {@link #addEntry(String, String)} and {@link #deleteEntry(String, String)} to a <b>journal</b> file
+ * in its directory, as a small record with a checksum. Records are first gathered in memory, and a single write and
+ * {@code fsync} then commits every record gathered so far: a <b>group commit</b>. Either a background thread commits
+ * every few milliseconds, so that updates return at in-memory speed and a crash loses at most the last interval, or,
+ * with an interval of 0 (zero), every update waits until it is committed, sharing its {@code fsync} with all the
+ * updates that other threads made meanwhile.</p>
+ *
+ * <p>Every so many records, the phonebook writes a <b>snapshot</b> of its entries into a new file, which then
+ * atomically replaces the previous snapshot, and starts a new journal; older journals are deleted. Each entry maps a
+ * name to a number and that number back to the name, so one list of entries restores both tables. Opening a
+ * directory loads the snapshot, with {@link Phonebook#addEntries(Iterable)}, and then replays the journals written
+ * after it. A record cut short by a crash fails its checksum, and replay stops right before it.</p>
+ *
+ * <p>All the methods of a {@link JournaledPhonebook} are thread-safe. Writing a snapshot blocks the other methods.</p>
+ *
+ * @author Keshab Acharya!
+ * @see Phonebook
+ * @see ConcurrentPhonebook
+ */
+public class JournaledPhonebook implements Closeable {
+
+    /**
+     * How often, in milliseconds, the background thread of a {@link JournaledPhonebook} built with the three-argument
+     * constructor commits the journal.
+     */
+    public static final long DEFAULT_COMMIT_INTERVAL = 10;
+
+    /**
+     * How many journal records a {@link JournaledPhonebook} built with the three-argument constructor writes between
+     * two snapshots.
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 100000;
+
+    private static final String SNAPSHOT = "snapshot", JOURNAL = "journal.";
+    private static final int SNAPSHOT_MAGIC = 0x50425350; // "PBSP"
+    private static final byte ADD = 1, DELETE = 2;
+
+    private final Path directory;
+    private final Phonebook phonebook;
+    private final int snapshotInterval;
+    private final ScheduledExecutorService committer;
+
+    /* Locks are always taken in this order: commitLock, then this. The monitor of this guards the phonebook and the
+     * records that are not committed yet; commitLock guards the journal file. */
+    private final Object commitLock = new Object();
+    private final CRC32 checksum = new CRC32();
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16), spare = ByteBuffer.allocate(1 << 16);
+    private long appended, committed; // The number of records appended and committed so far.
+    private int sinceSnapshot;
+    private long generation; // The number of the current journal; the snapshot covers every journal before it.
+    private FileChannel journal;
+    private volatile IOException failure; // Set if a background commit failed.
+
+    /**
+     * Opens the {@link JournaledPhonebook} stored in directory, or creates an empty one if the directory holds none.
+     * The background thread commits every {@link #DEFAULT_COMMIT_INTERVAL} milliseconds, and a snapshot is written
+     * every {@link #DEFAULT_SNAPSHOT_INTERVAL} records.
+     *
+     * @param directory The directory of the snapshot and the journals. It is created if it does not exist.
+     * @param namesToNumbersHash The {@link CollisionResolver} of the table with <b>peoples' names</b> as keys.
+     * @param numbersToNamesHash The {@link CollisionResolver} of the table with <b>phone numbers</b> as keys.
+     * @throws IOException if the directory cannot be read or written, or if its snapshot is corrupt.
+     */
+    public JournaledPhonebook(Path directory, CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash)
+            throws IOException {
+        this(directory, namesToNumbersHash, numbersToNamesHash, DEFAULT_COMMIT_INTERVAL, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Opens the {@link JournaledPhonebook} stored in directory, or creates an empty one if the directory holds none.
+     *
+     * @param directory The directory of the snapshot and the journals. It is created if it does not exist.
+     * @param namesToNumbersHash The {@link CollisionResolver} of the table with <b>peoples' names</b> as keys.
+     * @param numbersToNamesHash The {@link CollisionResolver} of the table with <b>phone numbers</b> as keys.
+     * @param commitInterval How often, in milliseconds, a background thread commits the journal, or 0 (zero) if
+     *                       every update should wait until it is committed.
+     * @param snapshotInterval How many journal records to write between two snapshots.
+     * @throws IllegalArgumentException if commitInterval is negative or snapshotInterval is not positive.
+     * @throws IOException if the directory cannot be read or written, or if its snapshot is corrupt.
+     */
+    public JournaledPhonebook(Path directory, CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash,
+                              long commitInterval, int snapshotInterval) throws IOException {
+        if(commitInterval < 0 || snapshotInterval < 1)
+            throw new IllegalArgumentException("Provided: commitInterval=" + commitInterval + " and snapshotInterval=" + snapshotInterval);
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        phonebook = new Phonebook(namesToNumbersHash, numbersToNamesHash);
+        Files.createDirectories(directory);
+        recover();
+        if(commitInterval > 0) {
+            committer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "phonebook-journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+            committer.scheduleWithFixedDelay(this::commitInBackground, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+        } else {
+            committer = null;
+        }
+    }
+
+    private Path journalPath(long generation) {
+        return directory.resolve(JOURNAL + generation);
+    }
+
+    // The generations of the journals in the directory, in ascending order.
+    private List<Long> journalGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try(Stream<Path> files = Files.list(directory)) {
+            for(Path file : (Iterable<Path>)files::iterator) {
+                String name = file.getFileName().toString();
+                if(name.startsWith(JOURNAL)) {
+                    try {
+                        generations.add(Long.parseLong(name.substring(JOURNAL.length())));
+                    } catch(NumberFormatException e) {
+                        // Not one of ours.
+                    }
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    // Loads the snapshot, replays the journals written after it, and opens the last journal for appending.
+    private void recover() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if(Files.exists(snapshot))
+            generation = readSnapshot(snapshot);
+        for(long journalGeneration : journalGenerations()) {
+            if(journalGeneration < generation) { // Already in the snapshot: a crash came before its deletion.
+                Files.delete(journalPath(journalGeneration));
+            } else {
+                generation = journalGeneration;
+                replay(journalPath(journalGeneration));
+            }
+        }
+        journal = FileChannel.open(journalPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal.position(journal.size());
+    }
+
+    private long readSnapshot(Path snapshot) throws IOException {
+        CRC32 crc = new CRC32();
+        try(DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(snapshot)), crc))) {
+            if(in.readInt() != SNAPSHOT_MAGIC)
+                throw new IOException("Not a phonebook snapshot: " + snapshot);
+            long snapshotGeneration = in.readLong();
+            int entries = in.readInt();
+            List<KVPair> batch = new ArrayList<>(entries);
+            for(int i = 0; i < entries; i++)
+                batch.add(new KVPair(readString(in), readString(in)));
+            long expected = crc.getValue();
+            if(in.readLong() != expected)
+                throw new IOException("Corrupt phonebook snapshot: " + snapshot);
+            phonebook.addEntries(batch);
+            return snapshotGeneration;
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Applies every intact record of the journal, and cuts off whatever follows the last one.
+    private void replay(Path path) throws IOException {
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32 crc = new CRC32();
+        int end = 0;
+        while(true) {
+            int start = records.position();
+            if(records.remaining() < 9)
+                break;
+            byte op = records.get();
+            int nameLength = records.getInt();
+            if(nameLength < 0 || records.remaining() < nameLength + 4)
+                break;
+            String name = new String(records.array(), records.position(), nameLength, StandardCharsets.UTF_8);
+            records.position(records.position() + nameLength);
+            int numberLength = records.getInt();
+            if(numberLength < 0 || records.remaining() < numberLength + 4)
+                break;
+            String number = new String(records.array(), records.position(), numberLength, StandardCharsets.UTF_8);
+            records.position(records.position() + numberLength);
+            crc.reset();
+            crc.update(records.array(), start, records.position() - start);
+            if(records.getInt() != (int)crc.getValue() || (op != ADD && op != DELETE))
+                break;
+            if(op == ADD)
+                phonebook.addEntry(name, number);
+            else
+                phonebook.deleteEntry(name, number);
+            end = records.position();
+        }
+        if(end < records.limit()) { // A torn record: new records have to follow the last intact one.
+            try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+    }
+
+    // Appends a record to the pending ones, and returns its sequence number. The caller holds the monitor of this.
+    private long append(byte op, String name, String number) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8), numberBytes = number.getBytes(StandardCharsets.UTF_8);
+        int length = 9 + nameBytes.length + numberBytes.length;
+        if(pending.remaining() < length + 4) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + length + 4));
+            pending.flip();
+            pending = bigger.put(pending);
+        }
+        int start = pending.position();
+        pending.put(op).putInt(nameBytes.length).put(nameBytes).putInt(numberBytes.length).put(numberBytes);
+        checksum.reset();
+        checksum.update(pending.array(), start, length);
+        pending.putInt((int)checksum.getValue());
+        sinceSnapshot++;
+        return ++appended;
+    }
+
+    // Writes and forces the pending records. The caller holds commitLock.
+    private void writePending() throws IOException {
+        ByteBuffer batch;
+        long upTo;
+        synchronized(this) {
+            batch = pending;
+            pending = spare;
+            upTo = appended;
+        }
+        batch.flip();
+        while(batch.hasRemaining())
+            journal.write(batch);
+        if(upTo > committed)
+            journal.force(false);
+        batch.clear();
+        spare = batch;
+        committed = upTo;
+    }
+
+    // Commits every record up to the given sequence number, unless another commit already did.
+    private void commit(long upTo) {
+        synchronized(commitLock) {
+            if(committed >= upTo)
+                return;
+            try {
+                writePending();
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void commitInBackground() {
+        try {
+            sync();
+        } catch(UncheckedIOException e) {
+            failure = e.getCause();
+        }
+    }
+
+    private void checkFailure() {
+        if(failure != null)
+            throw new UncheckedIOException("A background commit of the journal failed.", failure);
+    }
+
+    // Commits the records of an update, and writes a snapshot if it is due. Called without any lock held.
+    private void afterUpdate(long sequence, boolean snapshotDue) {
+        if(committer == null)
+            commit(sequence);
+        if(snapshotDue)
+            snapshot();
+    }
+
+    /** Retrieves the phone number associated with the provided full name. If the name is not in the database,
+     * this method returns {@code null}.
+     * @param name The full name of the owner of the phone number that is being searched for.
+     * @return The phone number associated with name, or {@code null} if name is {@code null} or if name
+     * is not in the {@link JournaledPhonebook}.
+     */
+    public synchronized String getNumberOf(String name) {
+        return phonebook.getNumberOf(name);
+    }
+
+    /** Retrieves the full name of the owner of the provided phone number. If the phone number is not in the database,
+     * this method returns {@code null}.
+     * @param number The phone number of the owner we are searching for.
+     * @return The full name of the owner of number, or {@code null} if number is {@code null} or if number
+     * is not in the {@link JournaledPhonebook}.
+     */
+    public synchronized String getOwnerOf(String number) {
+        return phonebook.getOwnerOf(number);
+    }
+
+    /** Adds the tuple &lt; name, number &gt; in the {@link JournaledPhonebook}, and journals it. If the commit interval
+     * is 0 (zero), the entry is on disk when this method returns.
+     * @param name The name of the owner of the phone number.
+     * @param number The phone number.
+     * @throws IllegalArgumentException if either name or number is {@code null}.
+     * @throws UncheckedIOException if the journal cannot be written.
+     */
+    public void addEntry(String name, String number) {
+        checkFailure();
+        long sequence;
+        boolean snapshotDue;
+        synchronized(this) {
+            phonebook.addEntry(name, number);
+            sequence = append(ADD, name, number);
+            snapshotDue = sinceSnapshot >= snapshotInterval;
+        }
+        afterUpdate(sequence, snapshotDue);
+    }
+
+    /** Deletes the entry characterized by the arguments provided, and journals the deletion. If the entry is
+     * <b>not</b> contained by this {@link JournaledPhonebook} instance, this method has <b>no effect</b>, and nothing
+     * is journaled.
+     * @param name The &quot;owner&quot; part of the &lt; owner, phone number &gt; tuple.
+     * @param number The &quot;number&quot; part of the &lt; owner, phone number &gt; tuple.
+     * @throws IllegalArgumentException if either name or number is {@code null}.
+     * @throws UncheckedIOException if the journal cannot be written.
+     */
+    public void deleteEntry(String name, String number) {
+        checkFailure();
+        long sequence;
+        boolean snapshotDue;
+        synchronized(this) {
+            if(name != null && number != null && phonebook.getNumberOf(name) == null && phonebook.getOwnerOf(number) == null)
+                return;
+            phonebook.deleteEntry(name, number);
+            sequence = append(DELETE, name, number);
+            snapshotDue = sinceSnapshot >= snapshotInterval;
+        }
+        afterUpdate(sequence, snapshotDue);
+    }
+
+    /**
+     * Commits every update made so far, so that it survives a crash.
+     * @throws UncheckedIOException if the journal cannot be written.
+     */
+    public void sync() {
+        long upTo;
+        synchronized(this) {
+            upTo = appended;
+        }
+        commit(upTo);
+    }
+
+    /**
+     * Writes a snapshot of every entry, which replaces the previous one, and starts a new, empty journal. The journals
+     * that the snapshot covers are deleted.
+     * @throws UncheckedIOException if the snapshot or the journal cannot be written.
+     */
+    public void snapshot() {
+        synchronized(commitLock) {
+            synchronized(this) {
+                try {
+                    writePending();
+                    journal.close();
+                    long covered = generation++;
+                    journal = FileChannel.open(journalPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    writeSnapshot();
+                    for(long journalGeneration : journalGenerations()) {
+                        if(journalGeneration <= covered)
+                            Files.delete(journalPath(journalGeneration));
+                    }
+                    sinceSnapshot = 0;
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    // Writes every entry into a temporary file, which then replaces the snapshot. The caller holds both locks.
+    private void writeSnapshot() throws IOException {
+        Path temp = directory.resolve(SNAPSHOT + ".tmp");
+        CRC32 crc = new CRC32();
+        try(DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), crc))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(generation);
+            out.writeInt(phonebook.size());
+            IOException[] error = new IOException[1];
+            phonebook.forEachEntry((name, number) -> {
+                try {
+                    if(error[0] == null) {
+                        writeString(out, name);
+                        writeString(out, number);
+                    }
+                } catch(IOException e) {
+                    error[0] = e;
+                }
+            });
+            if(error[0] != null)
+                throw error[0];
+            out.writeLong(crc.getValue());
+        }
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Returns the number of entries in the phonebook.
+     * @return the number of entries in the phonebook.
+     */
+    public synchronized int size() {
+        return phonebook.size();
+    }
+
+    /** Queries the phonebook for emptiness.
+     * @return {@code true} if, and only if, there are 0 entries in this {@link JournaledPhonebook}, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Stops the background thread, waiting for a commit that is already running, commits every update made so far
+     * and closes the journal. The {@link JournaledPhonebook} must not be used afterwards.
+     * @throws IOException if the journal cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if(committer != null) {
+            committer.shutdown();
+            boolean interrupted = false;
+            while(!committer.isTerminated()) { // A commit in flight must not write to the journal once it is closed.
+                try {
+                    committer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                } catch(InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted)
+                Thread.currentThread().interrupt();
+        }
+        try {
+            sync();
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+        synchronized(commitLock) {
+            journal.close();
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package phonebook;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
 import phonebook.hashes.*;
+import phonebook.utils.KVPair;
+import phonebook.utils.PrefixTree;
 
 /**
  * <p>{@link Phonebook} is an abstraction over phonebooks: databases of &lt; Full Name,
@@ -30,7 +37,14 @@ public class Phonebook {
 
     private HashTable namesToNumbers ;
     private HashTable numbersToNames ;
+    private final CollisionResolver namesToNumbersHash, numbersToNamesHash;
+    private PrefixTree names; // null unless setNamesIndexed(true) was called.
 
+    /**
+     * The smallest number of entries that {@link #addEntries(Iterable)} loads into an empty {@link Phonebook} on two
+     * threads. Below it, starting a thread costs more than it saves.
+     */
+    public static final int PARALLEL_LOAD_THRESHOLD = 10000;
 
     /**
      * Instantiates a new {@link Phonebook}. The parameters provide the collision resolution strategy
@@ -44,38 +58,95 @@ public class Phonebook {
      */
     public Phonebook(CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash) {
 
-        switch(namesToNumbersHash){
-            case SEPARATE_CHAINING:
-                namesToNumbers = new SeparateChainingHashTable();
-                break;
-            case LINEAR_PROBING:
-                namesToNumbers = new LinearProbingHashTable(false);
-                break;
-            case ORDERED_LINEAR_PROBING:
-                namesToNumbers = new OrderedLinearProbingHashTable(false);
-                break;
-            case QUADRATIC_PROBING:
-                namesToNumbers = new QuadraticProbingHashTable(false);
-                break;
-            default:
-                throw new RuntimeException("Encountered unsupported CollisionResolver argument: " + namesToNumbersHash  + "." );
+        this.namesToNumbersHash = namesToNumbersHash;
+        this.numbersToNamesHash = numbersToNamesHash;
+        namesToNumbers = createTable(namesToNumbersHash);
+        numbersToNames = createTable(numbersToNamesHash);
+    }
+
+    /**
+     * Instantiates a new {@link Phonebook} whose tables already have room for the given number of entries, so that
+     * adding them never resizes a table.
+     *
+     * @param namesToNumbersHash A {@link CollisionResolver} that will govern which subtype of {@link HashTable} will be used to
+     *                           create our hash table with <b>peoples' names</b> as keys.
+     * @param numbersToNamesHash A {@link CollisionResolver} that will govern which subtype of {@link HashTable} will be used to
+     *                           create our hash table with <b>phone numbers</b> as keys.
+     * @param expectedEntries The number of entries that the {@link Phonebook} is expected to hold.
+     * @see #reserve(int)
+     */
+    public Phonebook(CollisionResolver namesToNumbersHash, CollisionResolver numbersToNamesHash, int expectedEntries) {
+        this(namesToNumbersHash, numbersToNamesHash);
+        reserve(expectedEntries);
+    }
+
+    /**
+     * Instantiates a new {@link Phonebook} over the given tables, which may already hold entries, e.g. two
+     * {@link MappedHashTable}s opened from the files of an earlier run. The tables are expected to map every name to
+     * its number and every number back to its owner, as a {@link Phonebook} leaves them.
+     *
+     * @param namesToNumbers The {@link HashTable} with <b>peoples' names</b> as keys.
+     * @param numbersToNames The {@link HashTable} with <b>phone numbers</b> as keys.
+     * @throws IllegalArgumentException if either table is {@code null}.
+     */
+    public Phonebook(HashTable namesToNumbers, HashTable numbersToNames) {
+        if(namesToNumbers == null || numbersToNames == null)
+            throw new IllegalArgumentException("Provided: namesToNumbers=" + namesToNumbers + " and numbersToNames=" + numbersToNames);
+        this.namesToNumbersHash = null;
+        this.numbersToNamesHash = null;
+        this.namesToNumbers = namesToNumbers;
+        this.numbersToNames = numbersToNames;
+    }
+
+    /**
+     * Creates an empty {@link HashTable} with the given collision resolution strategy, the way that every
+     * {@link Phonebook} builds its tables. Tables that can delete in more than one way use hard deletion. Tables that
+     * can use another {@link HashFunction} get a {@link SeededHashFunction} with a fresh random seed, so that names or
+     * numbers crafted to share a {@link String#hashCode()} do not slow lookups down. {@link CuckooHashingHashTable}
+     * draws the seeds of its own hash functions from a {@link java.security.SecureRandom}.
+     * @param resolver The {@link CollisionResolver} of the table.
+     * @return A new, empty {@link HashTable}.
+     */
+    static HashTable createTable(CollisionResolver resolver) {
+        HashTable table = createUnseededTable(resolver);
+        if(table instanceof OpenAddressingHashTable) {
+            ((OpenAddressingHashTable)table).setHashFunction(new SeededHashFunction());
+        } else if(table instanceof SeparateChainingHashTable) {
+            ((SeparateChainingHashTable)table).setHashFunction(new SeededHashFunction());
+        } else if(table instanceof CompactLinearProbingHashTable) {
+            ((CompactLinearProbingHashTable)table).setHashFunction(new SeededHashFunction());
+        } else if(table instanceof SwissHashTable) {
+            ((SwissHashTable)table).setHashFunction(new SeededHashFunction());
+        } else if(table instanceof E164HashTable) {
+            ((E164HashTable)table).setHashFunction(new SeededHashFunction());
         }
+        return table;
+    }
 
-        switch(numbersToNamesHash){
+    private static HashTable createUnseededTable(CollisionResolver resolver) {
+        switch(resolver){
             case SEPARATE_CHAINING:
-                numbersToNames = new SeparateChainingHashTable();
-                break;
+                return new SeparateChainingHashTable();
             case LINEAR_PROBING:
-                numbersToNames = new LinearProbingHashTable(false);
-                break;
+                return new LinearProbingHashTable(false);
             case ORDERED_LINEAR_PROBING:
-                numbersToNames = new OrderedLinearProbingHashTable(false);
-                break;
+                return new OrderedLinearProbingHashTable(false);
             case QUADRATIC_PROBING:
-                numbersToNames = new QuadraticProbingHashTable(false);
-                break;
+                return new QuadraticProbingHashTable(false);
+            case ROBIN_HOOD_HASHING:
+                return new RobinHoodHashingHashTable(false);
+            case CUCKOO_HASHING:
+                return new CuckooHashingHashTable();
+            case COMPACT_LINEAR_PROBING:
+                return new CompactLinearProbingHashTable(false);
+            case DOUBLE_HASHING:
+                return new DoubleHashingHashTable(false);
+            case SWISS_TABLE:
+                return new SwissHashTable();
+            case E164_NUMBERS:
+                return new E164HashTable();
             default:
-                throw new RuntimeException("Encountered unsupported Collision Resolver " + numbersToNamesHash + ".");
+                throw new RuntimeException("Encountered unsupported CollisionResolver argument: " + resolver  + "." );
         }
     }
 
@@ -86,7 +157,7 @@ public class Phonebook {
      * is not in the {@link Phonebook}.
      */
     public String getNumberOf(String name) {
-        return (name == null) ? null : namesToNumbers.get(name).getValue();
+        return (name == null) ? null : namesToNumbers.valueOf(name);
     }
 
     /** Retrieves the full name of the owner of the provided phone number. If the phone number is not in the database,
@@ -96,7 +167,31 @@ public class Phonebook {
      * is not in the {@link Phonebook}.
      */
     public String getOwnerOf(String number) {
-        return (number == null) ? null : numbersToNames.get(number).getValue();
+        return (number == null) ? null : numbersToNames.valueOf(number);
+    }
+
+    /** Retrieves the phone numbers of many names at once: numbers[i] receives the number of names[i], or {@code null}
+     * if names[i] is {@code null} or not in the {@link Phonebook}. Every name is hashed before any is searched, and
+     * the searches run in the order of the cells they start from, which is faster than calling {@link #getNumberOf(String)}
+     * on each name for large batches.
+     * @param names The full names to search for.
+     * @param numbers The array to write the phone numbers into. Must be at least as long as names.
+     * @throws IllegalArgumentException if either array is {@code null}, or numbers is shorter than names.
+     * @see HashTable#getAll(String[], String[])
+     */
+    public void getNumbersOf(String[] names, String[] numbers) {
+        namesToNumbers.getAll(names, numbers);
+    }
+
+    /** Retrieves the owners of many phone numbers at once: owners[i] receives the full name of the owner of numbers[i],
+     * or {@code null} if numbers[i] is {@code null} or not in the {@link Phonebook}.
+     * @param numbers The phone numbers to search for.
+     * @param owners The array to write the full names into. Must be at least as long as numbers.
+     * @throws IllegalArgumentException if either array is {@code null}, or owners is shorter than numbers.
+     * @see #getNumbersOf(String[], String[])
+     */
+    public void getOwnersOf(String[] numbers, String[] owners) {
+        numbersToNames.getAll(numbers, owners);
     }
 
     /** Adds the tuple &lt; name, number &gt; in the {@link Phonebook}. If either name or
@@ -108,8 +203,96 @@ public class Phonebook {
     public void addEntry(String name, String number) {
         if(name == null || number == null)
             throw new IllegalArgumentException("Provided: name=" + name + " and number= " + number);
-        namesToNumbers.put(name, number);
-        numbersToNames.put(number, name);
+        String oldNumber = namesToNumbers.putValue(name, number);
+        String oldOwner = numbersToNames.putValue(number, name);
+        // Tables update existing keys in place, so drop the reverse mappings that the update made stale.
+        if(oldNumber != null && !oldNumber.equals(number))
+            numbersToNames.removeValue(oldNumber);
+        if(oldOwner != null && !oldOwner.equals(name))
+            namesToNumbers.removeValue(oldOwner);
+        if(names != null) {
+            names.add(name);
+            if(oldOwner != null && !oldOwner.equals(name))
+                names.remove(oldOwner);
+        }
+    }
+
+    /** Makes room for the given number of entries in total in both tables, in a single resize each, so that adding
+     * them never resizes a table again.
+     * @param expectedEntries The number of entries that the {@link Phonebook} is expected to hold.
+     * @see HashTable#reserve(int)
+     */
+    public void reserve(int expectedEntries) {
+        namesToNumbers.reserve(expectedEntries);
+        numbersToNames.reserve(expectedEntries);
+    }
+
+    /** Adds many entries at once, with the same outcome as calling {@link #addEntry(String, String)} on each of them
+     * in order. Both tables are first resized once, straight to their final capacity. An empty {@link Phonebook} built
+     * from two {@link CollisionResolver}s then fills its two tables in parallel, one thread each, with at least
+     * {@link #PARALLEL_LOAD_THRESHOLD} entries. That is only correct if no name and no number appears twice, which the
+     * sizes of the tables reveal afterwards; otherwise, the tables are rebuilt one entry at a time.
+     * @param entries The &lt; name, number &gt; pairs to add, in the key and value of each {@link KVPair}.
+     * @throws IllegalArgumentException if entries, or any of its names or numbers, is {@code null}. In that case,
+     * the {@link Phonebook} is not modified.
+     */
+    public void addEntries(Iterable<KVPair> entries) {
+        if(entries == null)
+            throw new IllegalArgumentException("Provided: entries=null");
+        List<KVPair> batch = new ArrayList<>();
+        for(KVPair entry : entries) {
+            if(entry == null || entry.getKey() == null || entry.getValue() == null)
+                throw new IllegalArgumentException("Provided: entry=" + entry);
+            batch.add(entry);
+        }
+        // Tables given to the constructor cannot be recreated if the parallel load fails, so they are loaded in order.
+        boolean parallel = namesToNumbersHash != null && isEmpty() && batch.size() >= PARALLEL_LOAD_THRESHOLD;
+        reserve(size() + batch.size());
+        if(parallel && loadInParallel(batch)) {
+            if(names != null)
+                for(KVPair entry : batch)
+                    names.add(entry.getKey());
+            return;
+        }
+        if(parallel) { // A name or number repeats, so later entries have to replace earlier ones.
+            namesToNumbers = createTable(namesToNumbersHash);
+            numbersToNames = createTable(numbersToNamesHash);
+            reserve(batch.size());
+        }
+        for(KVPair entry : batch)
+            addEntry(entry.getKey(), entry.getValue());
+    }
+
+    // Fills each (empty) table on its own thread. Returns whether every name and every number was distinct.
+    private boolean loadInParallel(List<KVPair> batch) {
+        RuntimeException[] failure = new RuntimeException[1];
+        Thread numbers = new Thread(() -> {
+            try {
+                for(KVPair entry : batch)
+                    numbersToNames.putValue(entry.getValue(), entry.getKey());
+            } catch(RuntimeException e) {
+                failure[0] = e;
+            }
+        });
+        numbers.start();
+        try {
+            for(KVPair entry : batch)
+                namesToNumbers.putValue(entry.getKey(), entry.getValue());
+        } finally {
+            boolean interrupted = false;
+            while(numbers.isAlive()) { // The other thread uses our table, so we cannot return before it's done.
+                try {
+                    numbers.join();
+                } catch(InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted)
+                Thread.currentThread().interrupt();
+        }
+        if(failure[0] != null)
+            throw failure[0];
+        return namesToNumbers.size() == batch.size() && numbersToNames.size() == batch.size();
     }
 
     /** Deletes the entry characterized by the arguments provided. If either argument is {@code null}, or if the
@@ -121,8 +304,55 @@ public class Phonebook {
     public void deleteEntry(String name, String number) {
         if(number == null || name == null)
             throw new IllegalArgumentException("Provided: name=" + name + " and number= " + number);
-        namesToNumbers.remove(name);
-        numbersToNames.remove(number);
+        if(namesToNumbers.removeValue(name) != null && names != null)
+            names.remove(name);
+        numbersToNames.removeValue(number);
+    }
+
+    /** Turns the index of names on or off. While it is on, {@link #getNamesStartingWith(String, int)} finds the names
+     * that start with a prefix in a {@link PrefixTree}, kept up to date by every addition and deletion, instead of
+     * looking at every entry. Turning it on indexes the entries already in the {@link Phonebook}.
+     * @param indexed Whether names should be indexed.
+     */
+    public void setNamesIndexed(boolean indexed) {
+        if(!indexed) {
+            names = null;
+        } else if(names == null) {
+            PrefixTree index = new PrefixTree();
+            namesToNumbers.forEach((name, number) -> index.add(name));
+            names = index;
+        }
+    }
+
+    /** Retrieves the first names that start with a prefix, in the order of {@link String#compareTo(String)}, e.g. to
+     * autocomplete a name as it is typed. With the index of names on, this takes time proportional to the length of
+     * the prefix plus limit; otherwise, every entry is looked at.
+     * @param prefix The first characters of the names. The empty prefix matches every name.
+     * @param limit The most names to retrieve.
+     * @return A new {@link List} of at most limit names, which is empty if no name starts with prefix.
+     * @throws IllegalArgumentException if prefix is {@code null} or limit is negative.
+     * @see #setNamesIndexed(boolean)
+     */
+    public List<String> getNamesStartingWith(String prefix, int limit) {
+        if(prefix == null || limit < 0)
+            throw new IllegalArgumentException("Provided: prefix=" + prefix + " and limit=" + limit);
+        if(names != null)
+            return names.startingWith(prefix, limit);
+        List<String> matches = new ArrayList<>();
+        namesToNumbers.forEach((name, number) -> {
+            if(name.startsWith(prefix))
+                matches.add(name);
+        });
+        Collections.sort(matches);
+        return (matches.size() > limit) ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /** Calls action on the name and the number of every entry, in no particular order. The {@link Phonebook} must
+     * not be modified until this method returns.
+     * @param action The action to perform on every &lt; name, number &gt; entry.
+     */
+    public void forEachEntry(BiConsumer<String, String> action) {
+        namesToNumbers.forEach(action);
     }
 
     /** Returns the number of entries in the phonebook.
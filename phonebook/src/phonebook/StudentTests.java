@@ -6,10 +6,18 @@ import org.junit.Test;
 import phonebook.hashes.*;
 import phonebook.utils.KVPair;
 import phonebook.utils.NoMorePrimesException;
+import phonebook.utils.Probes;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 import static phonebook.hashes.CollisionResolver.*;
@@ -29,7 +37,9 @@ import static phonebook.hashes.CollisionResolver.*;
 public class StudentTests {
 
     private Phonebook pb;
-    private CollisionResolver[] resolvers = {SEPARATE_CHAINING, LINEAR_PROBING, ORDERED_LINEAR_PROBING, QUADRATIC_PROBING};
+    private CollisionResolver[] resolvers = {SEPARATE_CHAINING, LINEAR_PROBING, ORDERED_LINEAR_PROBING, QUADRATIC_PROBING,
+            ROBIN_HOOD_HASHING, CUCKOO_HASHING, COMPACT_LINEAR_PROBING, DOUBLE_HASHING,
+            SWISS_TABLE};
     private HashMap<String, String> testingPhoneBook;
     private static final long SEED = 47;
     private static final Random RNG = new Random(SEED);
@@ -45,6 +55,37 @@ public class StudentTests {
         return "Received a " + t.getClass().getSimpleName() + " with message: " + t.getMessage() + ".";
     }
 
+    // "Aa" and "BB" have the same String.hashCode(), so all 2^n concatenations of n of them collide with each other.
+    private static String[] collidingKeys(int n) {
+        String[] colliding = {""};
+        for(int i = 0; i < n; i++) {
+            String[] longer = new String[colliding.length * 2];
+            for(int j = 0; j < colliding.length; j++) {
+                longer[2 * j] = colliding[j] + "Aa";
+                longer[2 * j + 1] = colliding[j] + "BB";
+            }
+            colliding = longer;
+        }
+        return colliding;
+    }
+
+    // Counts the keys it hashes, so that tests can tell whether resizes go through the keys again.
+    private static class CountingHashFunction implements HashFunction {
+        private final HashFunction hashFunction = new SeededHashFunction(SEED);
+        private int hashed;
+
+        @Override
+        public int hash(String key) {
+            hashed++;
+            return hashFunction.hash(key);
+        }
+
+        @Override
+        public int index(int hash, int length) {
+            return hashFunction.index(hash, length);
+        }
+    }
+
     @Before
     public void setUp() {
         testingPhoneBook = new HashMap<>();
@@ -229,15 +270,19 @@ public class StudentTests {
         for (String s: remove1) {
             lp.remove(s);
         }
+        // Only live records decide whether the table is sparse, so the purge shrinks it and drops its tombstones.
+        assertEquals("After deleting all but one record, the capacity should be 7, but get " + lp.capacity() + ".", 7, lp.capacity());
+        assertEquals(0, lp.getTombstoneCount());
 
         for(String s: add2) {
             lp.put(s, s);
         }
 
-        assertEquals("After additions and deletions, and additions again, the capacity should be 23, but get " + lp.capacity() + ".", 23, lp.capacity());
+        assertEquals("After additions and deletions, and additions again, the capacity should be 7, but get " + lp.capacity() + ".", 7, lp.capacity());
 
         lp.put("Terry", "new");
-        assertEquals("After additions and deletions, and additions again, resize should be triggered and the capacity should be 43, but get " + lp.capacity() + ".", 43, lp.capacity());
+        lp.put("Money", "new");
+        assertEquals("After additions and deletions, and additions again, resize should be triggered and the capacity should be 13, but get " + lp.capacity() + ".", 13, lp.capacity());
 
     }
     
@@ -390,4 +435,1100 @@ public class StudentTests {
    }
   
 
+   @Test
+   public void testRobinHoodAgainstHashMap() {
+	   for(boolean soft : new boolean[]{false, true}) {
+		   RobinHoodHashingHashTable rh = new RobinHoodHashingHashTable(soft);
+		   HashMap<String, String> expected = new HashMap<>();
+		   for(int i = 0; i < NUMS; i++) {
+			   String key = "key" + i;
+			   rh.put(key, "value" + i);
+			   expected.put(key, "value" + i);
+		   }
+		   for(int i = 0; i < NUMS; i += 2) { // Every other key goes away.
+			   assertEquals("value" + i, rh.remove("key" + i).getValue());
+			   expected.remove("key" + i);
+		   }
+		   assertEquals(expected.size(), rh.size());
+		   for(int i = 0; i < NUMS; i++) {
+			   assertEquals("Robin Hood (soft=" + soft + ") lost key" + i + ".", expected.get("key" + i), rh.get("key" + i).getValue());
+			   assertEquals(expected.containsKey("key" + i), rh.containsKey("key" + i));
+		   }
+		   assertNull(rh.remove("key0").getValue());
+		   assertFalse(rh.containsValue("value0"));
+		   assertTrue(rh.containsValue("value1"));
+	   }
+   }
+
+   @Test
+   public void testRobinHoodProbes() {
+	   RobinHoodHashingHashTable rh = new RobinHoodHashingHashTable(false);
+	   // Same keys and table as testLProbes: "Jessie" collides with "Arnold" and is pushed one cell over.
+	   assertEquals(1, rh.put("Arnold", "894-59-0011").getProbes());
+	   assertEquals(1, rh.put("Tiffany", "894-59-0011").getProbes());
+	   assertEquals(2, rh.put("Jessie", "705-12-7500").getProbes());
+	   assertEquals(1, rh.put("Mary", "888-1212-3340").getProbes());
+	   assertEquals(2, rh.get("Jessie").getProbes());
+	   assertEquals("705-12-7500", rh.get("Jessie").getValue());
+	   assertEquals(3, rh.remove("Arnold").getProbes()); // Jessie shifts back home, then an empty cell stops us.
+	   assertEquals(1, rh.get("Jessie").getProbes());
+	   assertEquals(3, rh.size());
+   }
+
+   @Test
+   public void testCuckooTwoProbeLookups() {
+	   CuckooHashingHashTable ck = new CuckooHashingHashTable();
+	   String[] colliding = collidingKeys(8);
+	   for(String key : colliding) {
+		   ck.put(key, key.toLowerCase());
+	   }
+	   for(int i = 0; i < NUMS; i++) {
+		   ck.put(Integer.toString(i), Integer.toString(i * i));
+	   }
+	   assertEquals(colliding.length + NUMS, ck.size());
+	   ck.put("0", "updated"); // Updates in place.
+	   assertEquals(colliding.length + NUMS, ck.size());
+	   assertEquals("updated", ck.get("0").getValue());
+
+	   for(String key : colliding) {
+		   Probes pr = ck.get(key);
+		   assertEquals(key.toLowerCase(), pr.getValue());
+		   assertTrue("Cuckoo Hashing took " + pr.getProbes() + " probes to find " + key + ".", pr.getProbes() <= 2);
+	   }
+	   for(int i = 1; i < NUMS; i++) {
+		   Probes pr = ck.get(Integer.toString(i));
+		   assertEquals(Integer.toString(i * i), pr.getValue());
+		   assertTrue(pr.getProbes() <= 2);
+	   }
+	   assertTrue(ck.get("missing").getProbes() <= 2);
+	   assertTrue(ck.containsValue("aaaaaaaaaaaaaaaa"));
+
+	   for(int i = 0; i < NUMS; i++) {
+		   assertTrue(ck.remove(Integer.toString(i)).getProbes() <= 2);
+	   }
+	   assertEquals(colliding.length, ck.size());
+	   assertFalse(ck.containsKey("5"));
+	   assertTrue(ck.containsKey(colliding[0]));
+   }
+
+   @Test
+   public void testIncrementalResizing() {
+	   for(boolean soft : new boolean[]{false, true}) {
+		   OpenAddressingHashTable[] tables = {new LinearProbingHashTable(soft, true),
+				   new OrderedLinearProbingHashTable(soft, true), new QuadraticProbingHashTable(soft, true),
+				   new DoubleHashingHashTable(soft, true)};
+		   for(OpenAddressingHashTable table : tables) {
+			   HashMap<String, String> expected = new HashMap<>();
+			   int maxPutProbes = 0;
+			   for(int i = 0; i < NUMS; i++) {
+				   String key = "key" + i;
+				   maxPutProbes = Math.max(maxPutProbes, table.put(key, "value" + i).getProbes());
+				   expected.put(key, "value" + i);
+				   if(i % 3 == 0) { // Deletions both of migrated and not yet migrated records.
+					   String victim = "key" + (i / 2);
+					   assertEquals(expected.remove(victim), table.remove(victim).getValue());
+				   }
+				   for(int j = 0; j <= i; j += 7) {
+					   assertEquals(table.getClass().getSimpleName() + " lost key" + j + " after " + (i + 1) + " insertions.",
+							   expected.get("key" + j), table.get("key" + j).getValue());
+				   }
+			   }
+			   if(!soft) { // Ordered Linear and Quadratic Probing count tombstones in size().
+				   assertEquals(expected.size(), table.size());
+			   }
+			   assertTrue(table.containsValue("value" + (NUMS - 1)));
+			   // A full rehash of the final table alone would cost more than its capacity in probes.
+			   assertTrue(table.getClass().getSimpleName() + " spent " + maxPutProbes + " probes on a single insertion.",
+					   maxPutProbes < table.capacity() / 4);
+		   }
+	   }
+   }
+
+   @Test
+   public void testCompactLinearProbingMatchesLinearProbing() {
+	   for(boolean soft : new boolean[]{false, true}) {
+		   LinearProbingHashTable lp = new LinearProbingHashTable(soft);
+		   CompactLinearProbingHashTable clp = new CompactLinearProbingHashTable(soft);
+		   for(int i = 0; i < NUMS; i++) {
+			   String key = Integer.toString(RNG.nextInt(NUMS)), value = Integer.toString(i);
+			   assertEquals("put(" + key + ")", lp.put(key, value).getProbes(), clp.put(key, value).getProbes());
+			   String other = Integer.toString(RNG.nextInt(NUMS));
+			   Probes expected = lp.get(other), actual = clp.get(other);
+			   assertEquals("get(" + other + ")", expected.getValue(), actual.getValue());
+			   assertEquals("get(" + other + ")", expected.getProbes(), actual.getProbes());
+			   if(i % 4 == 0) {
+				   expected = lp.remove(other);
+				   actual = clp.remove(other);
+				   assertEquals("remove(" + other + ")", expected.getValue(), actual.getValue());
+				   assertEquals("remove(" + other + ")", expected.getProbes(), actual.getProbes());
+			   }
+			   assertEquals(lp.size(), clp.size());
+			   assertEquals(lp.capacity(), clp.capacity());
+		   }
+		   assertEquals(lp.containsValue("7"), clp.containsValue("7"));
+		   assertEquals(lp.containsKey("7"), clp.containsKey("7"));
+	   }
+   }
+
+   @Test
+   public void testBackwardShiftDeletion() {
+	   LinearProbingHashTable reinserting = new LinearProbingHashTable(false);
+	   LinearProbingHashTable shifting = new LinearProbingHashTable(false, false, true);
+	   HashMap<String, String> expected = new HashMap<>();
+	   Random rng = new Random(SEED);
+	   int reinsertingProbes = 0, shiftingProbes = 0;
+	   for(int i = 0; i < NUMS; i++) {
+		   String key = Integer.toString(rng.nextInt(UPPER_BOUND * 10));
+		   if(!expected.containsKey(key)) {
+			   reinserting.put(key, key);
+			   shifting.put(key, key);
+			   expected.put(key, key);
+		   }
+		   if(i % 2 == 1) {
+			   String victim = Integer.toString(rng.nextInt(UPPER_BOUND * 10));
+			   Probes fromReinserting = reinserting.remove(victim), fromShifting = shifting.remove(victim);
+			   assertEquals(expected.remove(victim), fromShifting.getValue());
+			   assertEquals(fromReinserting.getValue(), fromShifting.getValue());
+			   reinsertingProbes += fromReinserting.getProbes();
+			   shiftingProbes += fromShifting.getProbes();
+		   }
+	   }
+	   assertEquals(expected.size(), shifting.size());
+	   for(int i = 0; i < UPPER_BOUND * 10; i++) {
+		   String key = Integer.toString(i);
+		   assertEquals("Backward-shift deletion lost " + key + ".", expected.get(key), shifting.get(key).getValue());
+	   }
+	   assertTrue("Backward-shift deletion took " + shiftingProbes + " probes, reinsertion " + reinsertingProbes + ".",
+			   shiftingProbes <= reinsertingProbes);
+   }
+
+   @Test
+   public void testQuadraticHardDeletionChurn() {
+	   QuadraticProbingHashTable qp = new QuadraticProbingHashTable(false);
+	   HashMap<String, String> expected = new HashMap<>();
+	   Random rng = new Random(SEED);
+	   for(int i = 0; i < 50; i++) {
+		   String key = Integer.toString(i);
+		   qp.put(key, key);
+		   expected.put(key, key);
+	   }
+	   int capacity = qp.capacity(), deleteProbes = 0;
+	   for(int i = 0; i < NUMS; i++) { // Delete and reinsert, so that the number of live records never grows.
+		   String victim = Integer.toString(rng.nextInt(50));
+		   Probes removed = qp.remove(victim);
+		   assertEquals(expected.remove(victim), removed.getValue());
+		   deleteProbes += removed.getProbes();
+		   if(removed.getValue() != null) {
+			   qp.put(victim, victim);
+			   expected.put(victim, victim);
+		   }
+		   assertEquals(expected.size(), qp.size());
+	   }
+	   assertEquals("Churn that never grows the table should not enlarge it.", capacity, qp.capacity());
+	   for(int i = 0; i < 50; i++) {
+		   String key = Integer.toString(i);
+		   assertEquals("Hard deletion lost " + key + ".", expected.get(key), qp.get(key).getValue());
+	   }
+	   assertTrue("Hard deletions took " + deleteProbes + " probes; they should not rebuild the table every time.",
+			   deleteProbes < NUMS * capacity / 2);
+   }
+
+   @Test
+   public void testPutUpdatesExistingKeys() {
+	   HashTable[] tables = {new SeparateChainingHashTable(), new LinearProbingHashTable(false),
+			   new OrderedLinearProbingHashTable(false), new QuadraticProbingHashTable(false),
+			   new RobinHoodHashingHashTable(false), new CuckooHashingHashTable(),
+			   new CompactLinearProbingHashTable(false), new LinearProbingHashTable(false, true),
+			   new DoubleHashingHashTable(false), new SwissHashTable()};
+	   for(HashTable table : tables) {
+		   String name = table.getClass().getSimpleName();
+		   for(int i = 0; i < 5; i++) {
+			   table.put(Integer.toString(i), "0");
+		   }
+		   int capacity = table.capacity();
+		   for(int round = 1; round <= 20; round++) {
+			   for(int i = 0; i < 5; i++) {
+				   Probes probes = table.put(Integer.toString(i), Integer.toString(round));
+				   assertEquals(name + " should return the value it inserted.", Integer.toString(round), probes.getValue());
+				   assertEquals(name + " should return the value it replaced.", Integer.toString(round - 1),
+						   probes.getPreviousValue());
+			   }
+		   }
+		   assertEquals(name + " should keep a single record per key.", 5, table.size());
+		   assertEquals(name + " should not resize on updates.", capacity, table.capacity());
+		   assertEquals("20", table.get("3").getValue());
+		   assertNull(name + " should report no previous value for a new key.", table.put("new", "1").getPreviousValue());
+	   }
+   }
+
+   @Test
+   public void testAddEntryUpdatesBothDirections() {
+	   for (CollisionResolver namesToPhones : resolvers) {
+		   for (CollisionResolver phonesToNames : resolvers) {
+			   pb = new Phonebook(namesToPhones, phonesToNames);
+			   pb.addEntry("Arnold", "894-59-0011");
+			   pb.addEntry("Arnold", "705-12-7500"); // A new number for Arnold.
+			   pb.addEntry("Tiffany", "705-12-7500"); // The number moves over to Tiffany.
+			   assertEquals(format("Updates should not add entries. ", namesToPhones, phonesToNames), 1, pb.size());
+			   assertNull(format("Arnold should no longer have a number. ", namesToPhones, phonesToNames), pb.getNumberOf("Arnold"));
+			   assertNull(pb.getOwnerOf("894-59-0011"));
+			   assertEquals("705-12-7500", pb.getNumberOf("Tiffany"));
+			   assertEquals("Tiffany", pb.getOwnerOf("705-12-7500"));
+		   }
+	   }
+   }
+
+   @Test
+   public void testConcurrentPhonebookUpdatesBothDirections() throws InterruptedException {
+	   ConcurrentPhonebook cpb = new ConcurrentPhonebook(LINEAR_PROBING, QUADRATIC_PROBING, 8);
+	   AtomicReference<Throwable> failure = new AtomicReference<>(); // JUnit only sees what the test thread throws.
+	   Thread[] writers = new Thread[4];
+	   for(int t = 0; t < writers.length; t++) {
+		   int offset = t;
+		   writers[t] = new Thread(() -> {
+			   try {
+				   for(int i = offset; i < NUMS; i += writers.length) {
+					   cpb.addEntry("Name" + i, "Number" + i);
+					   cpb.addEntry("Name" + i, "Renumbered" + i); // Leaves a stale reverse mapping to clean up.
+					   if(i % 3 == 0) {
+						   cpb.deleteEntry("Name" + i, "Renumbered" + i);
+					   }
+				   }
+			   } catch(Throwable thrown) {
+				   failure.compareAndSet(null, thrown);
+			   }
+		   });
+	   }
+	   Thread reader = new Thread(() -> {
+		   try {
+			   for(int i = 0; i < NUMS; i++) {
+				   String number = cpb.getNumberOf("Name" + i);
+				   String owner = (number == null) ? null : cpb.getOwnerOf(number);
+				   if(owner != null) { // The entry may have changed in between the two lookups, but never to another name.
+					   assertEquals("Name" + i, owner);
+				   }
+			   }
+		   } catch(Throwable thrown) {
+			   failure.compareAndSet(null, thrown);
+		   }
+	   });
+	   for(Thread writer : writers) {
+		   writer.start();
+	   }
+	   reader.start();
+	   for(Thread writer : writers) {
+		   writer.join();
+	   }
+	   reader.join();
+	   if(failure.get() != null) {
+		   throw new AssertionError("A writer or the reader failed: " + failure.get(), failure.get());
+	   }
+	   int expected = 0;
+	   for(int i = 0; i < NUMS; i++) {
+		   assertNull(cpb.getOwnerOf("Number" + i));
+		   if(i % 3 == 0) {
+			   assertNull(cpb.getNumberOf("Name" + i));
+			   assertNull(cpb.getOwnerOf("Renumbered" + i));
+		   } else {
+			   assertEquals("Renumbered" + i, cpb.getNumberOf("Name" + i));
+			   assertEquals("Name" + i, cpb.getOwnerOf("Renumbered" + i));
+			   expected++;
+		   }
+	   }
+	   assertEquals(expected, cpb.size());
+	   cpb.addEntry("Name1", "Renumbered2"); // Merges two entries into one.
+	   assertEquals(expected - 1, cpb.size());
+	   assertNull(cpb.getNumberOf("Name2"));
+	   assertNull(cpb.getOwnerOf("Renumbered1"));
+   }
+
+   @Test
+   public void testSeparateChainingTreeifiesCollidingChains() {
+	   SeparateChainingHashTable sc = new SeparateChainingHashTable();
+	   String[] colliding = collidingKeys(10);
+	   for(String key : colliding) {
+		   sc.put(key, key.toLowerCase());
+	   }
+	   assertEquals(colliding.length, sc.size());
+	   for(String key : colliding) {
+		   Probes probes = sc.get(key);
+		   assertEquals(key.toLowerCase(), probes.getValue());
+		   assertTrue("A search in a treeified bucket of " + colliding.length + " keys took " + probes.getProbes() +
+				   " probes.", probes.getProbes() <= 15);
+	   }
+	   assertEquals(null, sc.get("AaAa").getValue());
+	   assertTrue(sc.containsValue(colliding[100].toLowerCase()));
+	   sc.enlarge(); // The keys still collide in the bigger table.
+	   for(int i = 0; i < colliding.length - 3; i++) {
+		   assertEquals(colliding[i].toLowerCase(), sc.remove(colliding[i]).getValue());
+	   }
+	   assertEquals(3, sc.size());
+	   for(int i = colliding.length - 3; i < colliding.length; i++) { // Back in a short list.
+		   assertTrue(sc.containsKey(colliding[i]));
+		   assertTrue(sc.get(colliding[i]).getProbes() <= 3);
+	   }
+   }
+
+   @Test
+   public void testSeparateChainingResizesByLoadFactor() {
+	   SeparateChainingHashTable sc = new SeparateChainingHashTable();
+	   for(int i = 0; i < NUMS; i++) {
+		   sc.put(Integer.toString(i), Integer.toString(i));
+		   assertTrue("Separate Chaining hash should keep its load factor at most " +
+				   SeparateChainingHashTable.DEFAULT_MAX_LOAD_FACTOR + ".",
+				   sc.size() <= SeparateChainingHashTable.DEFAULT_MAX_LOAD_FACTOR * sc.capacity());
+	   }
+	   int capacity = sc.capacity();
+	   for(int i = 0; i < 10; i++) { // Right at a threshold, one insertion and one deletion should not resize twice.
+		   sc.remove("0");
+		   sc.put("0", "0");
+		   assertEquals(capacity, sc.capacity());
+	   }
+	   for(int i = 0; i < NUMS; i++) {
+		   assertEquals(Integer.toString(i), sc.remove(Integer.toString(i)).getValue());
+		   assertTrue("Separate Chaining hash should keep its load factor at least " +
+				   SeparateChainingHashTable.DEFAULT_MIN_LOAD_FACTOR + " once it has grown.", sc.capacity() == 7 ||
+				   sc.size() >= SeparateChainingHashTable.DEFAULT_MIN_LOAD_FACTOR * sc.capacity());
+	   }
+	   assertEquals("Separate Chaining hash should not shrink below its starting capacity.", 7, sc.capacity());
+	   try {
+		   new SeparateChainingHashTable(0.5, 0.3);
+		   fail("Thresholds less than a factor of two apart should be rejected.");
+	   } catch(IllegalArgumentException ignored) {
+	   }
+   }
+
+   @Test
+   public void testSoftDeletionCompaction() {
+	   OpenAddressingHashTable[] tables = {new LinearProbingHashTable(true), new QuadraticProbingHashTable(true),
+			   new DoubleHashingHashTable(true)};
+	   for(OpenAddressingHashTable table : tables) {
+		   String name = table.getClass().getSimpleName();
+		   table.setCompactionThreshold(0.5);
+		   for(int i = 0; i < 50; i++) {
+			   table.put("key" + i, "value" + i);
+		   }
+		   int capacity = 0;
+		   for(int i = 50; i < 50 + 20 * NUMS; i++) { // Churn at a steady 50 records.
+			   if(i == 50 + NUMS) { // By now, the table has grown as much as 50 records need.
+				   capacity = table.capacity();
+			   }
+			   assertEquals("value" + (i - 50), table.remove("key" + (i - 50)).getValue());
+			   table.put("key" + i, "value" + i);
+		   }
+		   assertEquals(name + " should compact its tombstones instead of enlarging.", capacity, table.capacity());
+		   assertTrue(name + " should have compacted.", table.getCompactionCount() > 0);
+		   assertTrue(name + " should report the tombstones that it cleared.", table.getLastCompactionPurged() >= 25);
+		   assertTrue(table.getLastCompactionProbes() >= capacity);
+		   assertTrue(name + " has more tombstones than cells.", table.getTombstoneCount() < capacity);
+		   for(int i = 20 * NUMS; i < 50 + 20 * NUMS; i++) {
+			   assertEquals("value" + i, table.get("key" + i).getValue());
+		   }
+	   }
+	   LinearProbingHashTable growing = new LinearProbingHashTable(true); // No threshold: tombstones are only cleared by enlarging.
+	   for(int i = 0; i < 50; i++) {
+		   growing.put("key" + i, "value" + i);
+	   }
+	   int capacity = growing.capacity();
+	   for(int i = 50; i < 50 + NUMS; i++) {
+		   growing.remove("key" + (i - 50));
+		   growing.put("key" + i, "value" + i);
+	   }
+	   assertEquals(0, growing.getCompactionCount());
+	   assertTrue(growing.capacity() > capacity);
+   }
+
+   @Test
+   public void testOpenAddressingShrinksAfterPurge() {
+	   for(boolean incremental : new boolean[]{false, true}) {
+		   OpenAddressingHashTable[] tables = {new LinearProbingHashTable(false, incremental),
+				   new OrderedLinearProbingHashTable(false, incremental), new QuadraticProbingHashTable(false, incremental),
+				   new RobinHoodHashingHashTable(false), new DoubleHashingHashTable(false, incremental),
+				   new LinearProbingHashTable(true, incremental), new OrderedLinearProbingHashTable(true, incremental),
+				   new QuadraticProbingHashTable(true, incremental), new RobinHoodHashingHashTable(true),
+				   new DoubleHashingHashTable(true, incremental)};
+		   for(OpenAddressingHashTable table : tables) {
+			   String name = table.getClass().getSimpleName();
+			   for(int i = 0; i < NUMS; i++) {
+				   table.put("key" + i, "value" + i);
+			   }
+			   int peak = table.capacity();
+			   for(int i = 10; i < NUMS; i++) { // Purge all but ten records.
+				   assertEquals("value" + i, table.remove("key" + i).getValue());
+			   }
+			   for(int i = 0; i < NUMS; i++) { // Let incremental resizes finish.
+				   table.get("key0");
+				   table.remove("missing");
+			   }
+			   assertTrue(name + " should give memory back after a purge; it's still at " + table.capacity() + " of " + peak +
+					   " cells.", table.capacity() < 8 * 10 * 2);
+			   for(int i = 0; i < 10; i++) {
+				   assertEquals("value" + i, table.get("key" + i).getValue());
+			   }
+			   int capacity = table.capacity();
+			   for(int i = 0; i < 10; i++) { // Going back and forth at the threshold should not resize.
+				   table.put("extra", "extra");
+				   table.remove("extra");
+			   }
+			   assertEquals(name + " resized back and forth.", capacity, table.capacity());
+		   }
+	   }
+   }
+
+   @Test
+   public void testDoubleHashingProbesByLoadFactor() {
+	   Random rng = new Random(SEED);
+	   for(double load : new double[]{0.5, 0.7, 0.9}) {
+		   DoubleHashingHashTable dh = new DoubleHashingHashTable(false, false, load);
+		   int n = 0;
+		   while(dh.capacity() < NUMS || n < (int)(load * dh.capacity())) { // Fill a large table up to its maximum load.
+			   dh.put("key" + n, "value" + n);
+			   n++;
+		   }
+		   int hitProbes = 0, missProbes = 0;
+		   for(int i = 0; i < n; i++) {
+			   Probes probes = dh.get("key" + i);
+			   assertEquals("value" + i, probes.getValue());
+			   hitProbes += probes.getProbes();
+			   missProbes += dh.get("missing" + rng.nextInt()).getProbes();
+		   }
+		   double a = (double)n / dh.capacity(), hit = (double)hitProbes / n, miss = (double)missProbes / n;
+		   // Uniform hashing expects (1/a)ln(1/(1-a)) probes for a hit and 1/(1-a) for a miss.
+		   assertTrue("At load " + a + ", hits took " + hit + " probes on average.", hit < 1.5 * Math.log(1 / (1 - a)) / a);
+		   assertTrue("At load " + a + ", misses took " + miss + " probes on average.", miss < 1.5 / (1 - a));
+	   }
+	   try {
+		   new DoubleHashingHashTable(false, false, 1);
+		   fail("A maximum load factor of 1 should leave no empty cell to end failed searches.");
+	   } catch(IllegalArgumentException expected) {
+	   }
+   }
+
+   @Test
+   public void testDoubleHashingAvoidsSecondaryClustering() {
+	   // Keys with the same hashed address all take the same jumps under quadratic probing, but not here.
+	   HashTable qp = new QuadraticProbingHashTable(false), dh = new DoubleHashingHashTable(false);
+	   for(int i = 0; i < NUMS; i++) { // Fill both tables up to the same capacity first.
+		   qp.put("key" + i, "value" + i);
+		   dh.put("key" + i, "value" + i);
+	   }
+	   int capacity = dh.capacity(), qpProbes = 0, dhProbes = 0;
+	   assertEquals(capacity, qp.capacity());
+	   for(int i = 0, added = 0; added < 50; i++) {
+		   String key = "same" + i;
+		   if((key.hashCode() & 0x7fffffff) % capacity == 0 && qp.get(key).getValue() == null) {
+			   qpProbes += qp.put(key, key).getProbes();
+			   dhProbes += dh.put(key, key).getProbes();
+			   added++;
+		   }
+	   }
+	   assertTrue("Double hashing took " + dhProbes + " probes, quadratic probing " + qpProbes + ".", 2 * dhProbes < qpProbes);
+   }
+
+   @Test
+   public void testSwissTableAtHighLoad() {
+	   SwissHashTable swiss = new SwissHashTable();
+	   LinearProbingHashTable lp = new LinearProbingHashTable(false);
+	   int n = 0;
+	   while(swiss.capacity() < NUMS || 8 * (n + 1) <= 7 * swiss.capacity()) { // Fill up to 87.5%, just short of rehashing.
+		   swiss.put("key" + n, "value" + n);
+		   lp.put("key" + n, "value" + n);
+		   n++;
+	   }
+	   int capacity = swiss.capacity();
+	   assertEquals("The capacity should be a power of two.", 1, Integer.bitCount(capacity));
+	   assertTrue("The table should be 7/8 full.", 8 * n >= 7 * capacity - 8);
+	   int swissProbes = 0, lpProbes = 0;
+	   for(int i = 0; i < n; i++) {
+		   assertEquals("value" + i, swiss.get("key" + i).getValue());
+		   swissProbes += swiss.get("key" + i).getProbes() + swiss.get("missing" + i).getProbes();
+		   lpProbes += lp.get("key" + i).getProbes() + lp.get("missing" + i).getProbes();
+	   }
+	   assertTrue("At 87.5% load, the Swiss table probed " + swissProbes + " groups; linear probing at up to 50% load " +
+			   "probed " + lpProbes + " cells.", 4 * swissProbes <= 5 * lpProbes);
+
+	   // Churn through deletions and reinsertions with a steady number of records.
+	   HashMap<String, String> expected = new HashMap<>();
+	   for(int i = 0; i < n; i++) {
+		   expected.put("key" + i, "value" + i);
+	   }
+	   Random rng = new Random(SEED);
+	   for(int i = 0; i < 20 * NUMS; i++) {
+		   String victim = "key" + rng.nextInt(2 * n), other = "key" + rng.nextInt(2 * n);
+		   assertEquals(expected.remove(victim), swiss.remove(victim).getValue());
+		   assertEquals(expected.put(other, "new" + i), swiss.put(other, "new" + i).getPreviousValue());
+		   assertEquals(expected.size(), swiss.size());
+	   }
+	   for(int i = 0; i < 2 * n; i++) {
+		   assertEquals(expected.get("key" + i), swiss.get("key" + i).getValue());
+	   }
+	   assertTrue("Churn at a steady size should not keep growing the table.", swiss.capacity() <= 2 * capacity);
+
+	   // Keys with equal hash codes share their fingerprints and probe sequences, but are still told apart.
+	   SwissHashTable colliding = new SwissHashTable();
+	   String[] keys = collidingKeys(6);
+	   for(String key : keys) {
+		   colliding.put(key, key);
+	   }
+	   for(String key : keys) {
+		   assertEquals(key, colliding.remove(key).getValue());
+		   assertFalse(colliding.containsKey(key));
+	   }
+	   assertEquals(0, colliding.size());
+   }
+
+   @Test
+   public void testSeededHashingResistsCollidingKeys() {
+	   String[] keys = collidingKeys(10); // 1024 keys, all with the same String.hashCode().
+	   OpenAddressingHashTable[] tables = {new LinearProbingHashTable(false), new OrderedLinearProbingHashTable(false),
+			   new QuadraticProbingHashTable(false), new RobinHoodHashingHashTable(false), new DoubleHashingHashTable(false)};
+	   for(OpenAddressingHashTable table : tables) {
+		   String name = table.getClass().getSimpleName();
+		   table.setHashFunction(new SeededHashFunction(SEED));
+		   for(String key : keys) {
+			   table.put(key, key);
+		   }
+		   int probes = 0;
+		   for(String key : keys) {
+			   Probes found = table.get(key);
+			   assertEquals(key, found.getValue());
+			   probes += found.getProbes();
+		   }
+		   assertTrue(name + " took " + probes + " probes to find " + keys.length + " colliding keys.", probes < 3 * keys.length);
+		   try {
+			   table.setHashFunction(HashFunction.STRING_HASH_CODE);
+			   fail(name + " should not replace the hash function of a table with records.");
+		   } catch(IllegalStateException expected) {
+		   }
+	   }
+
+	   SeparateChainingHashTable sc = new SeparateChainingHashTable();
+	   sc.setHashFunction(new SeededHashFunction(SEED));
+	   for(String key : keys) {
+		   sc.put(key, key);
+	   }
+	   for(String key : keys) {
+		   Probes found = sc.get(key);
+		   assertEquals(key, found.getValue());
+		   assertTrue("Colliding keys should be spread over the buckets.", found.getProbes() <= 8);
+	   }
+
+	   HashFunction seeded = new SeededHashFunction(SEED), reseeded = new SeededHashFunction(SEED + 1);
+	   assertEquals("The same seed should give the same hash codes.", seeded.hash(keys[0]), new SeededHashFunction(SEED).hash(keys[0]));
+	   int[] buckets = new int[7];
+	   int sameUnderBoth = 0;
+	   for(int i = 0; i < 7 * NUMS; i++) {
+		   String key = "key" + i;
+		   buckets[seeded.index(seeded.hash(key), buckets.length)]++;
+		   if(seeded.hash(key) == reseeded.hash(key)) {
+			   sameUnderBoth++;
+		   }
+	   }
+	   for(int bucket : buckets) {
+		   assertTrue("Every one of 7 buckets should get about " + NUMS + " keys, not " + bucket + ".",
+				   bucket > 0.9 * NUMS && bucket < 1.1 * NUMS);
+	   }
+	   assertTrue("Different seeds should give different hash codes.", sameUnderBoth < 5);
+   }
+
+   @Test
+   public void testSeededHashingCoversEveryTable() {
+	   String[] keys = collidingKeys(10);
+	   CompactLinearProbingHashTable compact = new CompactLinearProbingHashTable(false);
+	   SwissHashTable swiss = new SwissHashTable();
+	   E164HashTable e164 = new E164HashTable();
+	   compact.setHashFunction(new SeededHashFunction(SEED));
+	   swiss.setHashFunction(new SeededHashFunction(SEED));
+	   e164.setHashFunction(new SeededHashFunction(SEED));
+	   for(HashTable table : new HashTable[]{compact, swiss, e164}) {
+		   String name = table.getClass().getSimpleName();
+		   for(String key : keys) {
+			   table.put(key, key); // None of them are E.164 numbers.
+		   }
+		   int probes = 0;
+		   for(String key : keys) {
+			   Probes found = table.get(key);
+			   assertEquals(key, found.getValue());
+			   probes += found.getProbes();
+		   }
+		   assertTrue(name + " took " + probes + " probes to find " + keys.length + " colliding keys.", probes < 3 * keys.length);
+	   }
+	   try {
+		   swiss.setHashFunction(HashFunction.STRING_HASH_CODE);
+		   fail("SwissHashTable should not replace the hash function of a table with records.");
+	   } catch(IllegalStateException expected) {
+	   }
+
+	   // Cuckoo Hashing draws a new pair of hash functions on every rebuild, all from the seed it's given.
+	   CuckooHashingHashTable first = new CuckooHashingHashTable(SEED), second = new CuckooHashingHashTable(SEED);
+	   for(int i = 0; i < NUMS; i++) {
+		   assertEquals(first.put("key" + i, "value").getProbes(), second.put("key" + i, "value").getProbes());
+	   }
+	   assertEquals(first.capacity(), second.capacity());
+   }
+
+   @Test
+   public void testReserveAvoidsResizes() {
+	   for(CollisionResolver resolver : resolvers) {
+		   HashTable table = Phonebook.createTable(resolver);
+		   table.reserve(NUMS);
+		   int capacity = table.capacity();
+		   for(int i = 0; i < NUMS; i++) {
+			   table.put("key" + i, "value" + i);
+		   }
+		   assertEquals(resolver + " should not resize after reserving room for all of its records.", capacity, table.capacity());
+		   table.reserve(NUMS / 2);
+		   assertEquals(resolver + " should never shrink on reserve().", capacity, table.capacity());
+		   for(int i = 0; i < NUMS; i++) {
+			   assertEquals("value" + i, table.get("key" + i).getValue());
+		   }
+	   }
+   }
+
+   @Test
+   public void testReserveRejectsImpossibleCapacities() throws IOException {
+	   List<HashTable> tables = new ArrayList<>();
+	   tables.add(new SwissHashTable());
+	   tables.add(new E164HashTable());
+	   for(HashTable table : tables) {
+		   try {
+			   table.reserve(Integer.MAX_VALUE);
+			   fail(table.getClass().getSimpleName() + " should not make room for more records than it can ever hold.");
+		   } catch(IllegalArgumentException expected) {
+		   }
+		   assertEquals(0, table.size());
+	   }
+	   try {
+		   new Phonebook(SWISS_TABLE, SWISS_TABLE, Integer.MAX_VALUE);
+		   fail("A Phonebook should not make room for more entries than its tables can ever hold.");
+	   } catch(IllegalArgumentException expected) {
+	   }
+	   Path file = Files.createTempFile("phonebook", ".tbl");
+	   try(MappedHashTable mapped = new MappedHashTable(file)) {
+		   mapped.reserve(Integer.MAX_VALUE);
+		   fail("MappedHashTable should not make room for more records than it can ever hold.");
+	   } catch(IllegalArgumentException expected) {
+	   } finally {
+		   Files.deleteIfExists(file);
+	   }
+   }
+
+   @Test
+   public void testAddEntries() {
+	   int n = Phonebook.PARALLEL_LOAD_THRESHOLD;
+	   List<KVPair> distinct = new ArrayList<>(), repeating = new ArrayList<>();
+	   for(int i = 0; i < n; i++) {
+		   distinct.add(new KVPair("Person " + i, "Number " + i));
+		   repeating.add(new KVPair("Person " + (i % 100), "Number " + (i % 77))); // Every entry replaces earlier ones.
+	   }
+	   for(CollisionResolver namesToPhones : new CollisionResolver[]{LINEAR_PROBING, SEPARATE_CHAINING, SWISS_TABLE}) {
+		   for(CollisionResolver phonesToNames : new CollisionResolver[]{QUADRATIC_PROBING, ROBIN_HOOD_HASHING}) {
+			   Phonebook bulk = new Phonebook(namesToPhones, phonesToNames);
+			   bulk.addEntries(distinct);
+			   assertEquals(format("Every distinct entry should be loaded.", namesToPhones, phonesToNames), n, bulk.size());
+			   for(KVPair entry : distinct) {
+				   assertEquals(entry.getValue(), bulk.getNumberOf(entry.getKey()));
+				   assertEquals(entry.getKey(), bulk.getOwnerOf(entry.getValue()));
+			   }
+
+			   Phonebook loaded = new Phonebook(namesToPhones, phonesToNames), added = new Phonebook(namesToPhones, phonesToNames);
+			   loaded.addEntries(repeating);
+			   for(KVPair entry : repeating) {
+				   added.addEntry(entry.getKey(), entry.getValue());
+			   }
+			   assertEquals(format("Loading should match adding one entry at a time.", namesToPhones, phonesToNames),
+					   added.size(), loaded.size());
+			   for(int i = 0; i < 100; i++) {
+				   assertEquals(added.getNumberOf("Person " + i), loaded.getNumberOf("Person " + i));
+				   assertEquals(added.getOwnerOf("Number " + i), loaded.getOwnerOf("Number " + i));
+			   }
+		   }
+	   }
+	   Phonebook untouched = new Phonebook(LINEAR_PROBING, LINEAR_PROBING);
+	   List<KVPair> invalid = new ArrayList<>(distinct.subList(0, 10));
+	   invalid.add(null);
+	   try {
+		   untouched.addEntries(invalid);
+		   fail("A null entry should be rejected.");
+	   } catch(IllegalArgumentException expected) {
+		   assertTrue("A rejected batch should not add anything.", untouched.isEmpty());
+	   }
+   }
+
+   @Test
+   public void testBatchLookups() {
+	   List<HashTable> tables = new ArrayList<>();
+	   for(CollisionResolver resolver : resolvers) {
+		   tables.add(Phonebook.createTable(resolver));
+	   }
+	   tables.add(new LinearProbingHashTable(true, true)); // Leaves a resize in progress.
+	   String[] keys = new String[NUMS + 3];
+	   for(int i = 0; i < NUMS; i++) {
+		   keys[i] = "key" + (i * 7 % NUMS);
+	   }
+	   keys[NUMS] = null;
+	   keys[NUMS + 1] = "missing";
+	   keys[NUMS + 2] = keys[0];
+	   for(HashTable table : tables) {
+		   for(int i = 0; i < NUMS; i += 2) {
+			   table.put("key" + i, "value" + i);
+		   }
+		   table.remove("key0");
+		   String[] values = new String[keys.length];
+		   table.getAll(keys, values);
+		   for(int i = 0; i < keys.length; i++) {
+			   String expected = keys[i] == null ? null : table.get(keys[i]).getValue();
+			   assertEquals(table.getClass().getSimpleName() + " should find the same value as get() for " + keys[i] + ".",
+					   expected, values[i]);
+		   }
+		   try {
+			   table.getAll(keys, new String[keys.length - 1]);
+			   fail("A values array shorter than the keys should be rejected.");
+		   } catch(IllegalArgumentException expected) {}
+	   }
+
+	   Phonebook phonebook = new Phonebook(SWISS_TABLE, DOUBLE_HASHING);
+	   for(int i = 0; i < NUMS; i++) {
+		   phonebook.addEntry("Person " + i, "Number " + i);
+	   }
+	   String[] names = {"Person 3", null, "Nobody", "Person 999"}, numbers = new String[names.length];
+	   phonebook.getNumbersOf(names, numbers);
+	   assertArrayEquals(new String[]{"Number 3", null, null, "Number 999"}, numbers);
+	   String[] owners = new String[numbers.length];
+	   phonebook.getOwnersOf(numbers, owners);
+	   assertArrayEquals(new String[]{"Person 3", null, null, "Person 999"}, owners);
+   }
+
+   @Test
+   public void testFastPathsMatchProbes() {
+	   List<HashTable[]> pairs = new ArrayList<>();
+	   for(CollisionResolver resolver : resolvers) {
+		   pairs.add(new HashTable[]{Phonebook.createTable(resolver), Phonebook.createTable(resolver)});
+	   }
+	   pairs.add(new HashTable[]{new LinearProbingHashTable(false, true), new LinearProbingHashTable(false, true)});
+	   pairs.add(new HashTable[]{new DoubleHashingHashTable(true, true), new DoubleHashingHashTable(true, true)});
+	   for(HashTable[] pair : pairs) {
+		   HashTable slow = pair[0], fast = pair[1];
+		   String name = slow.getClass().getSimpleName();
+		   Random r = new Random(SEED);
+		   for(int i = 0; i < 4 * NUMS; i++) {
+			   String key = "key" + r.nextInt(NUMS / 2);
+			   switch(r.nextInt(3)) {
+				   case 0:
+					   assertEquals(name + " should report the same previous value.",
+							   slow.put(key, "value" + i).getPreviousValue(), fast.putValue(key, "value" + i));
+					   break;
+				   case 1:
+					   assertEquals(name + " should remove the same value.", slow.remove(key).getValue(), fast.removeValue(key));
+					   break;
+				   default:
+					   assertEquals(name + " should find the same value.", slow.get(key).getValue(), fast.valueOf(key));
+			   }
+			   assertEquals(name + " should hold the same number of records.", slow.size(), fast.size());
+		   }
+		   assertNull(fast.valueOf(null));
+		   assertNull(fast.removeValue(null));
+		   try {
+			   fast.putValue(null, "value");
+			   fail(name + " should reject a null key.");
+		   } catch(IllegalArgumentException expected) {}
+	   }
+   }
+
+   @Test
+   public void testValueIndex() {
+	   List<HashTable> tables = new ArrayList<>();
+	   for(CollisionResolver resolver : resolvers) {
+		   tables.add(Phonebook.createTable(resolver));
+	   }
+	   tables.add(new LinearProbingHashTable(true, true));
+	   tables.add(new QuadraticProbingHashTable(false, true));
+	   for(HashTable table : tables) {
+		   String name = table.getClass().getSimpleName();
+		   Map<String, String> expected = new HashMap<>();
+		   Random r = new Random(SEED);
+		   for(int i = 0; i < 4 * NUMS; i++) {
+			   if(i == NUMS) {
+				   table.setValueIndexed(true); // Indexes the records stored so far.
+			   }
+			   String key = "key" + r.nextInt(NUMS / 2), value = "value" + r.nextInt(NUMS / 4); // Values are shared.
+			   if(r.nextInt(3) == 0) {
+				   table.remove(key);
+				   expected.remove(key);
+			   } else {
+				   table.put(key, value);
+				   expected.put(key, value);
+			   }
+			   String probe = "value" + r.nextInt(NUMS / 3);
+			   assertEquals(name + " should report whether " + probe + " is stored.", expected.containsValue(probe), table.containsValue(probe));
+		   }
+		   table.setValueIndexed(false);
+		   for(int i = 0; i < NUMS / 3; i++) {
+			   assertEquals(name + " should scan correctly once the index is dropped.",
+					   expected.containsValue("value" + i), table.containsValue("value" + i));
+		   }
+	   }
+   }
+
+   @Test
+   public void testMappedHashTablePersists() throws IOException {
+	   Path dir = Files.createTempDirectory("phonebook");
+	   Path names = dir.resolve("names.tbl"), numbers = dir.resolve("numbers.tbl");
+	   try {
+		   Map<String, String> expected = new HashMap<>();
+		   try(MappedHashTable table = new MappedHashTable(names)) {
+			   Random r = new Random(SEED);
+			   for(int i = 0; i < 4 * NUMS; i++) {
+				   String key = "Zo\u00eb " + r.nextInt(NUMS), value = "Number " + r.nextInt(NUMS) + "x".repeat(r.nextInt(3));
+				   if(r.nextInt(4) == 0) {
+					   assertEquals(expected.remove(key), table.remove(key).getValue());
+				   } else {
+					   assertEquals(expected.put(key, value), table.put(key, value).getPreviousValue());
+				   }
+			   }
+			   assertEquals(expected.size(), table.size());
+		   }
+		   try(MappedHashTable table = new MappedHashTable(names)) {
+			   assertEquals("A reopened table should hold the same records.", expected.size(), table.size());
+			   for(int i = 0; i < NUMS; i++) {
+				   assertEquals(expected.get("Zo\u00eb " + i), table.get("Zo\u00eb " + i).getValue());
+			   }
+			   assertTrue(table.containsValue(expected.values().iterator().next()));
+			   assertFalse(table.containsValue("Number -1"));
+		   }
+
+		   try(MappedHashTable byName = new MappedHashTable(names); MappedHashTable byNumber = new MappedHashTable(numbers)) {
+			   for(String name : expected.keySet()) {
+				   byName.remove(name);
+			   }
+			   Phonebook phonebook = new Phonebook(byName, byNumber);
+			   for(int i = 0; i < NUMS; i++) {
+				   phonebook.addEntry("Person " + i, "Number " + i);
+			   }
+			   phonebook.deleteEntry("Person 0", "Number 0");
+		   }
+		   try(MappedHashTable byName = new MappedHashTable(names); MappedHashTable byNumber = new MappedHashTable(numbers)) {
+			   Phonebook phonebook = new Phonebook(byName, byNumber);
+			   assertEquals("A phonebook over reopened tables should hold the same entries.", NUMS - 1, phonebook.size());
+			   assertNull(phonebook.getNumberOf("Person 0"));
+			   assertEquals("Person 7", phonebook.getOwnerOf("Number 7"));
+		   }
+
+		   Path garbage = dir.resolve("garbage.tbl");
+		   Files.write(garbage, new byte[64]);
+		   try {
+			   new MappedHashTable(garbage).close();
+			   fail("A file that is not a mapped table should be rejected.");
+		   } catch(IOException expectedFailure) {}
+	   } finally {
+		   try(java.util.stream.Stream<Path> files = Files.list(dir)) {
+			   for(Path file : (Iterable<Path>)files::iterator) {
+				   Files.delete(file);
+			   }
+		   }
+		   Files.delete(dir);
+	   }
+   }
+
+   @Test
+   public void testJournaledPhonebookRecovers() throws IOException {
+	   Path dir = Files.createTempDirectory("journal");
+	   try {
+		   Phonebook expected = new Phonebook(LINEAR_PROBING, SEPARATE_CHAINING);
+		   Random r = new Random(SEED);
+		   try(JournaledPhonebook journaled = new JournaledPhonebook(dir, LINEAR_PROBING, SEPARATE_CHAINING, 0, NUMS / 8)) {
+			   for(int i = 0; i < 2 * NUMS; i++) {
+				   String name = "Person " + r.nextInt(NUMS / 2), number = "Number " + r.nextInt(NUMS / 2);
+				   if(r.nextInt(4) == 0) {
+					   number = expected.getNumberOf(name);
+					   if(number != null) {
+						   journaled.deleteEntry(name, number);
+						   expected.deleteEntry(name, number);
+					   }
+				   } else {
+					   journaled.addEntry(name, number);
+					   expected.addEntry(name, number);
+				   }
+			   }
+		   }
+		   assertTrue("Snapshots should have been written.", Files.exists(dir.resolve("snapshot")));
+		   List<Path> journals = new ArrayList<>();
+		   try(java.util.stream.Stream<Path> files = Files.list(dir)) {
+			   files.filter(f -> f.getFileName().toString().startsWith("journal.")).forEach(journals::add);
+		   }
+		   assertEquals("The journals covered by the snapshot should be deleted.", 1, journals.size());
+		   Files.write(journals.get(0), new byte[]{1, 0, 0, 0, 9, 'P'}, java.nio.file.StandardOpenOption.APPEND); // A torn record.
+
+		   try(JournaledPhonebook journaled = new JournaledPhonebook(dir, LINEAR_PROBING, SEPARATE_CHAINING)) {
+			   assertEquals("Recovery should restore every entry.", expected.size(), journaled.size());
+			   for(int i = 0; i < NUMS / 2; i++) {
+				   assertEquals(expected.getNumberOf("Person " + i), journaled.getNumberOf("Person " + i));
+				   assertEquals(expected.getOwnerOf("Number " + i), journaled.getOwnerOf("Number " + i));
+			   }
+			   journaled.addEntry("Person -1", "Number -1"); // Committed by the background thread, or on close.
+		   }
+		   try(JournaledPhonebook journaled = new JournaledPhonebook(dir, QUADRATIC_PROBING, SWISS_TABLE)) {
+			   assertEquals("An entry journaled after a torn record should be recovered.", "Number -1", journaled.getNumberOf("Person -1"));
+			   assertEquals(expected.size() + 1, journaled.size());
+		   }
+	   } finally {
+		   try(java.util.stream.Stream<Path> files = Files.list(dir)) {
+			   for(Path file : (Iterable<Path>)files::iterator) {
+				   Files.delete(file);
+			   }
+		   }
+		   Files.delete(dir);
+	   }
+   }
+
+   @Test
+   public void testE164HashTable() {
+	   assertTrue(E164HashTable.isE164("+302101234567"));
+	   assertTrue(E164HashTable.isE164("999999999999999"));
+	   assertFalse(E164HashTable.isE164("0123456"));
+	   assertFalse(E164HashTable.isE164("+1234567890123456")); // 16 digits.
+	   assertFalse(E164HashTable.isE164("894-59-0011"));
+	   assertFalse(E164HashTable.isE164("+"));
+
+	   E164HashTable table = new E164HashTable();
+	   Map<String, String> expected = new HashMap<>();
+	   Random r = new Random(SEED);
+	   for(int i = 0; i < 8 * NUMS; i++) {
+		   String key;
+		   switch(r.nextInt(4)) {
+			   case 0:
+				   key = "+1" + (2000000000L + r.nextInt(NUMS)); // The same digits with and without a "+" are different keys.
+				   break;
+			   case 1:
+				   key = "1" + (2000000000L + r.nextInt(NUMS));
+				   break;
+			   case 2:
+				   key = "Number " + r.nextInt(NUMS / 4); // Not an E.164 number.
+				   break;
+			   default:
+				   key = Long.toString(1 + r.nextInt(NUMS)); // Short numbers collide into few clusters.
+		   }
+		   if(r.nextInt(3) == 0) {
+			   assertEquals("Removing " + key + " should return its value.", expected.remove(key), table.removeValue(key));
+		   } else {
+			   String value = "Person " + i;
+			   assertEquals("Putting " + key + " should return its previous value.", expected.put(key, value), table.put(key, value).getPreviousValue());
+		   }
+		   assertEquals(expected.size(), table.size());
+	   }
+	   for(Map.Entry<String, String> entry : expected.entrySet()) {
+		   assertEquals(entry.getValue(), table.get(entry.getKey()).getValue());
+		   assertTrue(table.containsValue(entry.getValue()));
+	   }
+	   Map<String, String> visited = new HashMap<>();
+	   table.forEach(visited::put);
+	   assertEquals("forEach should restore every key exactly.", expected, visited);
+
+	   Phonebook phonebook = new Phonebook(SWISS_TABLE, E164_NUMBERS);
+	   phonebook.addEntry("Jason Filippou", "+13015551234");
+	   phonebook.addEntry("Keshab Acharya", "894-59-0011");
+	   assertEquals("Jason Filippou", phonebook.getOwnerOf("+13015551234"));
+	   assertEquals("Keshab Acharya", phonebook.getOwnerOf("894-59-0011"));
+	   assertNull(phonebook.getOwnerOf("13015551234"));
+	   phonebook.deleteEntry("Jason Filippou", "+13015551234");
+	   assertEquals(1, phonebook.size());
+   }
+
+   @Test
+   public void testNamePrefixIndex() {
+	   Phonebook indexed = new Phonebook(SWISS_TABLE, LINEAR_PROBING), scanned = new Phonebook(SWISS_TABLE, LINEAR_PROBING);
+	   List<KVPair> entries = new ArrayList<>();
+	   for(int i = 0; i < Phonebook.PARALLEL_LOAD_THRESHOLD; i++) {
+		   entries.add(new KVPair("Person " + i, "Number " + i));
+	   }
+	   indexed.setNamesIndexed(true);
+	   indexed.addEntries(entries); // Loaded in parallel, then indexed.
+	   scanned.addEntries(entries);
+	   Random r = new Random(SEED);
+	   for(int i = 0; i < 2 * NUMS; i++) {
+		   String name = "Person " + r.nextInt(NUMS), number = "Number " + r.nextInt(NUMS);
+		   if(r.nextInt(3) == 0) {
+			   number = scanned.getNumberOf(name);
+			   if(number != null) {
+				   indexed.deleteEntry(name, number);
+				   scanned.deleteEntry(name, number);
+			   }
+		   } else {
+			   indexed.addEntry(name, number); // Drops whoever owned number before from the index.
+			   scanned.addEntry(name, number);
+		   }
+		   String prefix = "Person " + r.nextInt(NUMS / 10);
+		   assertEquals("The index should list the same names as a scan for " + prefix + ".",
+				   scanned.getNamesStartingWith(prefix, 5), indexed.getNamesStartingWith(prefix, 5));
+	   }
+	   assertEquals(Arrays.asList("Person 9999"), indexed.getNamesStartingWith("Person 9999", 5));
+	   assertEquals(indexed.size(), indexed.getNamesStartingWith("", Integer.MAX_VALUE).size());
+	   indexed.setNamesIndexed(false);
+	   scanned.setNamesIndexed(true); // Indexes the entries stored so far.
+	   assertEquals(indexed.getNamesStartingWith("Person 1", 50), scanned.getNamesStartingWith("Person 1", 50));
+	   assertTrue(scanned.getNamesStartingWith("Nobody", 5).isEmpty());
+   }
+
+   @Test
+   public void testContainsValueSkipsTombstones() {
+	   HashTable[] tables = {new QuadraticProbingHashTable(false), new QuadraticProbingHashTable(true),
+			   new LinearProbingHashTable(true), new OrderedLinearProbingHashTable(true), new DoubleHashingHashTable(false)};
+	   for(HashTable table : tables) {
+		   for(int i = 0; i < 40; i++) {
+			   table.put("key" + i, "value" + i);
+		   }
+		   table.remove("key7"); // Leaves a tombstone, whose value is "".
+		   assertFalse(table.getClass().getSimpleName() + " should not report the value of a tombstone.", table.containsValue(""));
+		   assertFalse(table.containsValue("value7"));
+		   assertTrue(table.containsValue("value8"));
+	   }
+   }
+
+   @Test
+   public void testQuadraticProbingStopsOnFullProbeSequences() {
+	   for(boolean soft : new boolean[]{false, true}) {
+		   QuadraticProbingHashTable table = new QuadraticProbingHashTable(soft);
+		   int capacity = table.capacity();
+		   List<String> keys = new ArrayList<>(); // Keys with the same address, whose probe sequence visits 4 cells.
+		   for(int i = 0; keys.size() < 5; i++) {
+			   if((("k" + i).hashCode() & 0x7fffffff) % capacity == 0) {
+				   keys.add("k" + i);
+			   }
+		   }
+		   for(int i = 0; i < 4; i++) {
+			   table.put(keys.get(i), "value" + i);
+		   }
+		   assertEquals("The table should not have resized yet.", capacity, table.capacity());
+		   // Every cell of the probe sequence of keys.get(4) is taken, so searches used to go around it forever.
+		   assertNull(table.get(keys.get(4)).getValue());
+		   assertFalse(table.containsKey(keys.get(4)));
+		   assertNull(table.remove(keys.get(4)).getValue());
+		   assertEquals(4, table.size());
+	   }
+   }
+
+   @Test
+   public void testInsertionsHashEveryKeyOnce() {
+	   SeparateChainingHashTable sc = new SeparateChainingHashTable();
+	   CompactLinearProbingHashTable compact = new CompactLinearProbingHashTable(false);
+	   SwissHashTable swiss = new SwissHashTable();
+	   HashTable[] tables = {sc, compact, swiss};
+	   CountingHashFunction[] counting = {new CountingHashFunction(), new CountingHashFunction(), new CountingHashFunction()};
+	   sc.setHashFunction(counting[0]);
+	   compact.setHashFunction(counting[1]);
+	   swiss.setHashFunction(counting[2]);
+	   for(int t = 0; t < tables.length; t++) {
+		   String name = tables[t].getClass().getSimpleName();
+		   for(int i = 0; i < NUMS; i++) {
+			   tables[t].put("key" + i, "value" + i);
+		   }
+		   assertTrue(name + " should have enlarged a few times.", tables[t].capacity() > NUMS);
+		   assertEquals(name + " should hash the key of every insertion once, and resizes should not hash at all.",
+				   NUMS, counting[t].hashed);
+		   for(int i = 0; i < NUMS; i++) {
+			   assertEquals("value" + i, tables[t].get("key" + i).getValue());
+		   }
+	   }
+   }
+
 }
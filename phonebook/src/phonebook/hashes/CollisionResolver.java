@@ -2,7 +2,7 @@ package phonebook.hashes;
 
 /**
  * <p>{@link CollisionResolver} is an enum which provides named constants for
- * four of the most widely used collision resolution techniques in hash tables: </p>
+ * several of the most widely used collision resolution techniques in hash tables: </p>
  * <ol>
  *     <li><i>Separate Chaining</i>, a simple collision resolver which allocates a linked list for every cell of the hash table.
  *          All keys hashed to the same cell are put in the back of a linked list which containsKVPair all same-hash keys. Enlarging this hash table
@@ -14,6 +14,19 @@ package phonebook.hashes;
  *     making searches destined to fail, fail <b>faster!</b></li>
  *     <li><i>Quadratic Probing</i>, a  modification of Linear Probing where collisions are resolved by having the key make quadratically - increased &quot; jumps &quot;
  *     until it finds an empty cell. See writeup for more details.</li>
+ *     <li><i>Robin Hood Hashing</i>, a modification of Linear Probing where an inserted key takes the cell of any key that
+ *     is closer to its own hashed address, keeping probe lengths even and letting failed searches stop early.</li>
+ *     <li><i>Cuckoo Hashing</i>, where every key can only live in one of two cells, given by two different hash functions.
+ *     Keys evict each other between those cells on insertion, so that searches and deletions never look at more than
+ *     two cells.</li>
+ *     <li><i>Compact Linear Probing</i>, Linear Probing over parallel arrays of hash codes, keys and values instead of an
+ *     array of pairs, so that most probes are settled by comparing cached hash codes.</li>
+ *     <li><i>Double Hashing</i>, where every collision moves the key a fixed step over, and that step comes from a
+ *     second hash function of the key, so that keys hashed to the same address do not follow each other.</li>
+ *     <li><i>Swiss Table</i>, where every cell has a control byte with 7 bits of its key's hash code, and a probe
+ *     checks the control bytes of 8 cells at once, so that most mismatches never touch a key.</li>
+ *     <li><i>E.164 Numbers</i>, Linear Probing over a {@code long[]} array of phone numbers parsed from their digits, so
+ *     that a number key costs 8 bytes and a probe a single comparison. Meant for tables keyed by phone numbers.</li>
  * </ol>
  *
  * <p><b>**** DO NOT EDIT THIS ENUM! ****** </b></p>
@@ -24,10 +37,22 @@ package phonebook.hashes;
  * @see SeparateChainingHashTable
  * @see LinearProbingHashTable
  * @see QuadraticProbingHashTable
+ * @see RobinHoodHashingHashTable
+ * @see CuckooHashingHashTable
+ * @see CompactLinearProbingHashTable
+ * @see DoubleHashingHashTable
+ * @see SwissHashTable
+ * @see E164HashTable
  */
 public enum CollisionResolver {
     SEPARATE_CHAINING,
     LINEAR_PROBING,
     ORDERED_LINEAR_PROBING,
-    QUADRATIC_PROBING
+    QUADRATIC_PROBING,
+    ROBIN_HOOD_HASHING,
+    CUCKOO_HASHING,
+    COMPACT_LINEAR_PROBING,
+    DOUBLE_HASHING,
+    SWISS_TABLE,
+    E164_NUMBERS
 }
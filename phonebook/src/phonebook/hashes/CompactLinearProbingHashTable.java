@@ -0,0 +1,389 @@
+package phonebook.hashes;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+/**
+ * <p>{@link CompactLinearProbingHashTable} is a {@link HashTable} with the exact same collision resolution strategy,
+ * resizing policy and probe counts as {@link LinearProbingHashTable}, but a different <b>storage layout</b>. Instead of
+ * one array of {@link phonebook.utils.KVPair} references, it keeps three parallel arrays: the hash codes of
+ * the keys, the keys and the values. A probe compares the cached hash code first, and only touches the key
+ * {@link String} when the hash codes match, so most collisions are resolved without leaving the {@code int[]}
+ * array. Empty and deleted cells are marked with two sentinel values in the hash array. Keys which hash to either
+ * value are given the hash code with its top bit cleared instead, which {@link HashFunction#STRING_HASH_CODE} reduces
+ * to the same cell.</p>
+ *
+ * <p>This saves a pointer dereference per probe, but not always memory. With compressed references, a cell takes 12
+ * bytes instead of the 4 of a {@link phonebook.utils.KVPair} reference, while a record no longer needs the 24 bytes of
+ * a {@link phonebook.utils.KVPair}. Since both tables resize at the same load, that is about 24 bytes per record
+ * against 32 when the table is half full, right before it grows, but 48 against 40 when it is a quarter full, right
+ * after. The table only saves memory above a load of 1/3.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see CollisionResolver
+ */
+public class CompactLinearProbingHashTable implements HashTable {
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+
+	private static final int EMPTY = -1;
+	private static final int TOMBSTONE = -2;
+
+	private int[] hashes;
+	private String[] keys;
+	private String[] values;
+	private PrimeGenerator primeGenerator;
+	private int count;
+	private int tombCount;
+	private ValueIndex valueIndex;
+	private boolean softFlag;
+	private HashFunction hashFunction = HashFunction.STRING_HASH_CODE;
+
+	// The hash code of key, moved off the sentinels.
+	private int hashOf(String key) {
+		int hash = hashFunction.hash(key);
+		return (hash == EMPTY || hash == TOMBSTONE) ? hash & 0x7fffffff : hash;
+	}
+
+	private int indexOf(int hash) {
+		return hashFunction.index(hash, hashes.length);
+	}
+
+	private static boolean isFull(int hash) {
+		return hash != EMPTY && hash != TOMBSTONE;
+	}
+
+	private void allocate(int length) {
+		hashes = new int[length];
+		Arrays.fill(hashes, EMPTY);
+		keys = new String[length];
+		values = new String[length];
+	}
+
+	private int next(int index) {
+		return (index == hashes.length - 1) ? 0 : index + 1; //if the index is last index, loop back around
+	}
+
+	private int putHelper(int hash, String key, String value) {
+		int index = indexOf(hash), probeCount = 1;
+		while(hashes[index] != EMPTY) {
+			index = next(index);
+			probeCount++;
+		}
+		hashes[index] = hash;
+		keys[index] = key;
+		values[index] = value;
+		return probeCount;
+	}
+
+	/* Returns the cell of key, whose hashOf() is hash, or, if it's not there, the bitwise complement (always negative)
+	 * of the empty cell that ends its probe sequence, which is where it would be inserted. Unless probes is null, the
+	 * cells we looked at are added to probes[0]. */
+	private int find(String key, int hash, int[] probes) {
+		int index = indexOf(hash), probeCount = 1;
+		while(hashes[index] != EMPTY) {
+			if(hashes[index] == hash && keys[index].equals(key)) {
+				break;
+			}
+			index = next(index);
+			probeCount++;
+		}
+		if(probes != null) {
+			probes[0] += probeCount;
+		}
+		return hashes[index] == EMPTY ? ~index : index;
+	}
+
+	/* Inserts or updates key, and returns the value it was mapped to before, if any. Unless probes is null, the
+	 * probes made are added to probes[0]. */
+	private String upsert(String key, String value, int[] probes) {
+		if(key == null || value == null) {
+			throw new IllegalArgumentException("Either key or the value is null.");
+		}
+		if(this.count >= hashes.length/2 + 1) {
+			int probeCount = rehash(primeGenerator.getNextPrime());
+			if(probes != null) {
+				probes[0] += probeCount;
+			}
+		}
+		int hash = hashOf(key), index = find(key, hash, probes);
+		if(valueIndex != null) {
+			valueIndex.replace(index >= 0 ? values[index] : null, value);
+		}
+		if(index >= 0) { // An update: no new record.
+			String previous = values[index];
+			values[index] = value;
+			return previous;
+		}
+		index = ~index;
+		hashes[index] = hash;
+		keys[index] = key;
+		values[index] = value;
+		count++;
+		return null;
+	}
+
+	/* Removes key, and returns its value, or null if it's not there. Unless probes is null, the probes made are
+	 * added to probes[0]. */
+	private String delete(String key, int[] probes) {
+		int index = find(key, hashOf(key), probes);
+		if(index < 0) {
+			return null;
+		}
+		String retVal = values[index];
+		if(valueIndex != null) {
+			valueIndex.remove(retVal);
+		}
+		int probeCount = 0;
+		if(softFlag) { // soft deletion
+			clear(index, TOMBSTONE);
+			tombCount++;
+		} else { // hard deletion: reinsert the rest of the cluster, like LinearProbingHashTable
+			clear(index, EMPTY);
+			index = next(index);
+			probeCount++; //to check the next element
+			while(hashes[index] != EMPTY) {
+				int hash = hashes[index];
+				String movedKey = keys[index], movedValue = values[index];
+				clear(index, EMPTY);
+				probeCount += putHelper(hash, movedKey, movedValue);
+				probeCount++; //count for going back to while loop to check next index
+				index = next(index);
+			}
+			count--;
+		}
+		if(probes != null) {
+			probes[0] += probeCount;
+		}
+		return retVal;
+	}
+
+	// Moves every record into new arrays of the given length, dropping the tombstones. Returns the number of probes.
+	private int rehash(int length) {
+		int[] oldHashes = hashes;
+		String[] oldKeys = keys, oldValues = values;
+		allocate(length);
+		int probeCount = 0;
+		for(int i = 0; i < oldHashes.length; i++) {
+			probeCount++; //for deleting from the old table
+			if(isFull(oldHashes[i])) {
+				probeCount += putHelper(oldHashes[i], oldKeys[i], oldValues[i]);
+			}
+		}
+		count -= tombCount;
+		tombCount = 0;
+		return probeCount;
+	}
+
+	private void clear(int index, int sentinel) {
+		hashes[index] = sentinel;
+		keys[index] = null;
+		values[index] = null;
+	}
+
+    /* ******************************************/
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+    /* **************************************** */
+
+    /**
+     * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+     *
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *             we want soft deletion, {@code false} otherwise.
+     */
+    public CompactLinearProbingHashTable(boolean soft) {
+    	primeGenerator = new PrimeGenerator();
+    	allocate(primeGenerator.getCurrPrime());
+    	softFlag = soft;
+    	count = 0;
+    	tombCount = 0;
+    }
+
+    /**
+     * Replaces the {@link HashFunction} of an empty table. {@link SeededHashFunction} keeps crafted keys from piling
+     * up in the same cluster, at the cost of hashing every key in full.
+     * @param hashFunction The new hash function.
+     * @throws IllegalArgumentException if hashFunction is {@code null}.
+     * @throws IllegalStateException if the table holds any record or tombstone.
+     */
+    public void setHashFunction(HashFunction hashFunction) {
+    	if(hashFunction == null) {
+    		throw new IllegalArgumentException("The hash function is null.");
+    	}
+    	if(count != 0) {
+    		throw new IllegalStateException("Can only replace the hash function of an empty table.");
+    	}
+    	this.hashFunction = hashFunction;
+    }
+
+    /**
+     * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+     * keys and values, and we <b>will</b> test if you are throwing a {@link IllegalArgumentException} from your code
+     * if this method is given {@code null} arguments! It is important that we establish that no {@code null} entries
+     * can exist in our database because the semantics of {@link #get(String)} and {@link #remove(String)} are that they
+     * return {@code null} if, and only if, their key parameter is {@code null}. This method is expected to run in <em>amortized
+     * constant time</em>.
+     * <p>
+     * Resizing reuses the cached hash codes, so no key is hashed twice. Inserting a key that already exists updates
+     * its value in place, in the same pass that searches for it.
+     *
+     * @param key   The record's key.
+     * @param value The record's value.
+     * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+     * @throws IllegalArgumentException if either argument is {@code null}.
+     */
+    @Override
+    public Probes put(String key, String value) {
+
+    	int[] probes = new int[1];
+    	String previous = upsert(key, value, probes);
+    	return new Probes(value, probes[0], previous);
+    }
+
+    @Override
+    public String putValue(String key, String value) {
+    	return upsert(key, value, null);
+    }
+
+    @Override
+    public Probes get(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	int index = find(key, hashOf(key), probes);
+    	return new Probes(index < 0 ? null : values[index], probes[0]);
+    }
+
+    @Override
+    public String valueOf(String key) {
+    	if(key == null) {
+    		return null;
+    	}
+    	int index = find(key, hashOf(key), null);
+    	return index < 0 ? null : values[index];
+    }
+
+    /**
+     * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. If key does not exist in the database
+     * or if key = {@code null}, this method returns {@code null}. This method is expected to run in <em>amortized constant time</em>.
+     *
+     * @param key The key to search for.
+     * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+     * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+     */
+    @Override
+    public Probes remove(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	String retVal = delete(key, probes);
+    	return new Probes(retVal, probes[0]);
+    }
+
+    @Override
+    public String removeValue(String key) {
+    	return key == null ? null : delete(key, null);
+    }
+
+    /**
+     * Hashes every key first, and then searches them in the order of their hashed addresses, so that the searches
+     * sweep the arrays from one end to the other instead of jumping around them.
+     */
+    @Override
+    public void getAll(String[] keys, String[] values) {
+    	if(keys == null || values == null || values.length < keys.length) {
+    		throw new IllegalArgumentException("Provided arrays are null or too short.");
+    	}
+    	long[] order = new long[keys.length]; // The hashed address in the high half, the position of the key in the low.
+    	int[] hashed = new int[keys.length];
+    	int n = 0;
+    	for(int i = 0; i < keys.length; i++) {
+    		if(keys[i] == null) {
+    			values[i] = null;
+    		} else {
+    			hashed[i] = hashOf(keys[i]);
+    			order[n++] = ((long)indexOf(hashed[i]) << 32) | i;
+    		}
+    	}
+    	Arrays.sort(order, 0, n);
+    	for(int j = 0; j < n; j++) {
+    		int i = (int)order[j];
+    		int index = find(keys[i], hashed[i], null);
+    		values[i] = index < 0 ? null : this.values[index];
+    	}
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+    	return key != null && find(key, hashOf(key), null) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
+    	for(int i = 0; i < hashes.length; i++) {
+    		if(isFull(hashes[i]) && values[i].equals(value)) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+
+    @Override
+    public void setValueIndexed(boolean indexed) {
+    	if(!indexed) {
+    		valueIndex = null;
+    	} else if(valueIndex == null) {
+    		valueIndex = new ValueIndex();
+    		for(int i = 0; i < hashes.length; i++) {
+    			if(isFull(hashes[i])) {
+    				valueIndex.add(values[i]);
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+    	for(int i = 0; i < hashes.length; i++) {
+    		if(isFull(hashes[i])) {
+    			action.accept(keys[i], values[i]);
+    		}
+    	}
+    }
+
+    @Override
+    public int size() {
+        return count - tombCount;
+    }
+
+    @Override
+    public int capacity() {
+        return hashes.length;
+    }
+
+    @Override
+    public void reserve(int records) {
+    	if(records <= hashes.length/2 + 1) {
+    		return;
+    	}
+    	int length = hashes.length;
+    	while(records > length/2 + 1) {
+    		length = primeGenerator.getNextPrime();
+    	}
+    	rehash(length);
+    }
+}
@@ -0,0 +1,334 @@
+package phonebook.hashes;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+/**
+ * <p>{@link CuckooHashingHashTable} is a {@link HashTable} that implements <b>Cuckoo Hashing</b> as its collision
+ * resolution strategy. It keeps <b>two</b> arrays of the same prime size, each with its own hash function, and every
+ * key lives in exactly one of the two cells that it hashes to. Searches and deletions therefore look at <b>at most
+ * two</b> cells, no matter how full the table is.</p>
+ *
+ * <p>A key which finds both of its cells taken kicks out the key in its first cell, which moves to its own cell in
+ * the second array, possibly kicking out another key, and so on. Should that chain of evictions run for too long, we
+ * have most likely hit a cycle; we then draw two new hash functions and rebuild the table, enlarging it if rebuilding
+ * keeps failing. Both hash functions are {@link SeededHashFunction}s, whose seeds are drawn from a
+ * {@link SecureRandom} unless the table is given a seed of its own, so that no one can craft keys which collide in
+ * both arrays at once and force rebuild after rebuild.</p>
+ *
+ * <p>Cuckoo Hashing only works well below 50&#37; load, so {@link CuckooHashingHashTable} enlarges when its records
+ * fill 40&#37; of its {@link #capacity()}. Inserting a key that already exists updates its value in place.</p>
+ *
+ * @author Keshab Acharya!
+ * @see HashTable
+ * @see SeparateChainingHashTable
+ * @see LinearProbingHashTable
+ * @see CollisionResolver
+ */
+public class CuckooHashingHashTable implements HashTable {
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+
+	private static final int MAX_REBUILDS_BEFORE_ENLARGING = 5;
+
+	private KVPair[] first, second;
+	private HashFunction firstHash, secondHash;
+	private int count;
+	private ValueIndex valueIndex;
+	private PrimeGenerator primeGenerator;
+	private Random seeds; // Where the seeds of the hash functions come from.
+
+	private static int hash(String key, HashFunction hashFunction, int length) {
+		return hashFunction.index(hashFunction.hash(key), length);
+	}
+
+	private void drawHashFunctions() {
+		firstHash = new SeededHashFunction(seeds.nextLong());
+		secondHash = new SeededHashFunction(seeds.nextLong());
+	}
+
+	// Eviction chains longer than a small multiple of log2(n) almost always mean that we are in a cycle.
+	private int maxEvictions() {
+		return 6 * (32 - Integer.numberOfLeadingZeros(first.length));
+	}
+
+	/* Places pair through a chain of evictions. Returns null on success, or the pair left without a cell if the
+	 * chain ran for too long. probes[0] accumulates the cells that we wrote to. */
+	private KVPair place(KVPair pair, int[] probes) {
+		int index = hash(pair.getKey(), secondHash, second.length);
+		if(second[index] == null && first[hash(pair.getKey(), firstHash, first.length)] != null) {
+			probes[0]++;
+			second[index] = pair;
+			return null;
+		}
+		KVPair toInsert = pair;
+		for(int i = 0; i < maxEvictions(); i++) {
+			index = hash(toInsert.getKey(), firstHash, first.length);
+			probes[0]++;
+			KVPair evicted = first[index];
+			first[index] = toInsert;
+			if(evicted == null) {
+				return null;
+			}
+			index = hash(evicted.getKey(), secondHash, second.length);
+			probes[0]++;
+			toInsert = second[index];
+			second[index] = evicted;
+			if(toInsert == null) {
+				return null;
+			}
+		}
+		return toInsert;
+	}
+
+	/* Draws new hash functions and reinserts every record, plus extra if it isn't null, into arrays of the given
+	 * length. Enlarges the arrays after MAX_REBUILDS_BEFORE_ENLARGING failed attempts. Returns the number of probes. */
+	private int rebuild(int length, KVPair extra) {
+		List<KVPair> pairs = new ArrayList<>(count + 1);
+		for(int i = 0; i < first.length; i++) {
+			if(first[i] != null) {
+				pairs.add(first[i]);
+			}
+			if(second[i] != null) {
+				pairs.add(second[i]);
+			}
+		}
+		if(extra != null) {
+			pairs.add(extra);
+		}
+		int[] probes = {first.length + second.length}; //for deleting from the old arrays
+		int attempts = 0;
+		while(true) {
+			if(attempts == MAX_REBUILDS_BEFORE_ENLARGING) {
+				length = primeGenerator.getNextPrime();
+				attempts = 0;
+			}
+			attempts++;
+			drawHashFunctions();
+			first = new KVPair[length];
+			second = new KVPair[length];
+			boolean placedAll = true;
+			for(KVPair pair : pairs) {
+				if(place(pair, probes) != null) {
+					placedAll = false;
+					break;
+				}
+			}
+			if(placedAll) {
+				return probes[0];
+			}
+		}
+	}
+
+    /* ******************************************/
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+    /* **************************************** */
+
+    /**
+     *  Default constructor. Initializes both internal arrays with a size equal to the default of {@link PrimeGenerator},
+     *  and seeds the hash functions from a {@link SecureRandom}.
+     */
+    public CuckooHashingHashTable() {
+    	this(new SecureRandom());
+    }
+
+    /**
+     * Creates a table whose hash functions, including those drawn on every rebuild, all derive from the given seed.
+     * The same seed always gives the same layout and probe counts, which is useful for tests, but a seed that others
+     * can learn no longer protects against crafted keys.
+     * @param seed The seed.
+     */
+    public CuckooHashingHashTable(long seed) {
+    	this(new Random(seed));
+    }
+
+    private CuckooHashingHashTable(Random seeds) {
+    	primeGenerator = new PrimeGenerator();
+    	first = new KVPair[primeGenerator.getCurrPrime()];
+    	second = new KVPair[primeGenerator.getCurrPrime()];
+    	this.seeds = seeds;
+    	drawHashFunctions();
+    	count = 0;
+    }
+
+    @Override
+    public Probes put(String key, String value) {
+
+    	if(key == null || value == null) {
+    		throw new IllegalArgumentException("Either key or the value is null.");
+    	}
+    	KVPair resident = first[hash(key, firstHash, first.length)];
+    	if(resident != null && resident.hasKey(key)) {
+    		String previous = resident.getValue();
+    		resident.setValue(value);
+    		if(valueIndex != null) {
+    			valueIndex.replace(previous, value);
+    		}
+    		return new Probes(value, 1, previous);
+    	}
+    	resident = second[hash(key, secondHash, second.length)];
+    	if(resident != null && resident.hasKey(key)) {
+    		String previous = resident.getValue();
+    		resident.setValue(value);
+    		if(valueIndex != null) {
+    			valueIndex.replace(previous, value);
+    		}
+    		return new Probes(value, 2, previous);
+    	}
+    	int probeCount = 2;
+    	if(5 * (count + 1) > 2 * capacity()) { // Keep the load at 40% or less.
+    		probeCount += rebuild(primeGenerator.getNextPrime(), null);
+    	}
+    	int[] probes = {0};
+    	KVPair homeless = place(new KVPair(key, value), probes);
+    	probeCount += probes[0];
+    	if(homeless != null) {
+    		probeCount += rebuild(first.length, homeless);
+    	}
+    	count++;
+    	if(valueIndex != null) {
+    		valueIndex.add(value);
+    	}
+    	return new Probes(value, probeCount);
+    }
+
+    @Override
+    public Probes get(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	KVPair resident = first[hash(key, firstHash, first.length)];
+    	if(resident != null && resident.hasKey(key)) {
+    		return new Probes(resident.getValue(), 1);
+    	}
+    	resident = second[hash(key, secondHash, second.length)];
+    	if(resident != null && resident.hasKey(key)) {
+    		return new Probes(resident.getValue(), 2);
+    	}
+    	return new Probes(null, 2);
+    }
+
+    @Override
+    public String valueOf(String key) {
+    	if(key == null) {
+    		return null;
+    	}
+    	KVPair resident = first[hash(key, firstHash, first.length)];
+    	if(resident != null && resident.hasKey(key)) {
+    		return resident.getValue();
+    	}
+    	resident = second[hash(key, secondHash, second.length)];
+    	return (resident != null && resident.hasKey(key)) ? resident.getValue() : null;
+    }
+
+    @Override
+    public Probes remove(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int index = hash(key, firstHash, first.length);
+    	if(first[index] != null && first[index].hasKey(key)) {
+    		String value = first[index].getValue();
+    		first[index] = null;
+    		count--;
+    		if(valueIndex != null) {
+    			valueIndex.remove(value);
+    		}
+    		return new Probes(value, 1);
+    	}
+    	index = hash(key, secondHash, second.length);
+    	if(second[index] != null && second[index].hasKey(key)) {
+    		String value = second[index].getValue();
+    		second[index] = null;
+    		count--;
+    		if(valueIndex != null) {
+    			valueIndex.remove(value);
+    		}
+    		return new Probes(value, 2);
+    	}
+    	return new Probes(null, 2);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+    	return valueOf(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
+    	for(int i = 0; i < first.length; i++) {
+    		if((first[i] != null && first[i].getValue().equals(value)) ||
+    				(second[i] != null && second[i].getValue().equals(value))) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+
+    @Override
+    public void setValueIndexed(boolean indexed) {
+    	if(!indexed) {
+    		valueIndex = null;
+    	} else if(valueIndex == null) {
+    		valueIndex = new ValueIndex();
+    		for(int i = 0; i < first.length; i++) {
+    			if(first[i] != null) {
+    				valueIndex.add(first[i].getValue());
+    			}
+    			if(second[i] != null) {
+    				valueIndex.add(second[i].getValue());
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+    	for(KVPair[] nest : new KVPair[][]{first, second}) {
+    		for(KVPair pair : nest) {
+    			if(pair != null) {
+    				action.accept(pair.getKey(), pair.getValue());
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the <b>capacity</b> of this {@link CuckooHashingHashTable}, which is the total number of cells
+     * across <b>both</b> of its arrays.
+     * @return the number of cells in the table.
+     */
+    @Override
+    public int capacity() {
+        return first.length + second.length;
+    }
+
+    @Override
+    public void reserve(int records) {
+    	int length = first.length;
+    	while(5L * records > 4L * length) { // The same 40% bound as put(), over both arrays.
+    		length = primeGenerator.getNextPrime();
+    	}
+    	if(length != first.length) {
+    		rebuild(length, null);
+    	}
+    }
+}
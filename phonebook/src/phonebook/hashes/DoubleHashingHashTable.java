@@ -0,0 +1,267 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+/**
+ * <p>{@link DoubleHashingHashTable} is an Openly Addressed {@link HashTable} which uses <b>Double Hashing</b> as its
+ * collision resolution strategy. Like {@link LinearProbingHashTable} and {@link QuadraticProbingHashTable}, a key
+ * starts probing at its hashed address, but every collision moves it a fixed <b>step</b> over, and that step comes
+ * from a second hash function of the key. Two keys that hash to the same address therefore almost always follow
+ * different probe sequences, which gets rid of the &quot; secondary clustering &quot; that Quadratic Probing still
+ * suffers from: under Quadratic Probing, all keys with the same hashed address make exactly the same jumps.</p>
+ *
+ * <p>The step is between 1 and the capacity minus 1, and the capacity is always prime, so every probe sequence visits
+ * every cell of the table before repeating. The second hash function mixes the bits of the cached hash code, so that
+ * it stays independent of the hashed address, which the {@link HashFunction} of the table derives from the same hash
+ * code. Keys with <b>equal</b> hash codes still share their probe sequence.</p>
+ *
+ * <p>Since its probe sequences behave close to random ones, the expected number of probes of a search depends on
+ * the load factor only: about (1 / a) ln(1 / (1 - a)) for a successful search and 1 / (1 - a) for a failed one
+ * at load factor a. The table resizes when it is half full by default, like the other openly addressed tables, but
+ * a higher maximum load factor can be given to trade probes for memory. Hard deletion leaves a hidden tombstone behind,
+ * like it does in {@link QuadraticProbingHashTable}.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashTable
+ * @see QuadraticProbingHashTable
+ * @see LinearProbingHashTable
+ * @see CollisionResolver
+ */
+public class DoubleHashingHashTable extends OpenAddressingHashTable {
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+
+	/**
+	 * The maximum load factor of a {@link DoubleHashingHashTable} built without one.
+	 */
+	public static final double DEFAULT_MAX_LOAD_FACTOR = 0.5;
+
+	private static final int DEAD_CELL_RATIO = 8; // Compact once an eighth of the cells are dead.
+
+	private final double maxLoadFactor;
+	private int tombCount;
+	private int deadCount; // Cells left as TOMBSTONE by hard deletions. Unlike tombCount, these are not part of count.
+
+	// The Murmur3 finalizer, so that the step does not depend on the same low bits as the hashed address.
+	private static int secondHash(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return hash & 0x7fffffff;
+	}
+
+	// Between 1 and length - 1, so for a prime length, coprime with it.
+	private static int step(int hash, int length) {
+		return 1 + secondHash(hash) % (length - 1);
+	}
+
+	@Override
+	protected int probeIndex(int hash, int attempt, int length) {
+		int home = indexOf(hash, length);
+		return (int)((home + (long)attempt * step(hash, length)) % length);
+	}
+
+	@Override
+	protected int maxOccupied(int length) {
+		return (int)(maxLoadFactor * length) + 1; // length/2 + 1 at the default load factor.
+	}
+
+	// Whether a table with occupied non-empty cells has to make room before another insertion.
+	private boolean isFull(int occupied) {
+		return occupied >= maxOccupied(table.length);
+	}
+
+    /* ******************************************/
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+    /* **************************************** */
+
+    /**
+     * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *               we want soft deletion, {@code false} otherwise.
+     */
+    public DoubleHashingHashTable(boolean soft) {
+    	this(soft, false);
+    }
+
+    /**
+     * Constructor with soft deletion and incremental resizing options. Initializes the internal storage with a size equal
+     * to the starting value of  {@link PrimeGenerator}.
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *               we want soft deletion, {@code false} otherwise.
+     * @param incremental A boolean indicator of whether we want to resize incrementally or not. {@code true} if and only if
+     *               we want resizes to migrate a few cells per insertion or deletion, {@code false} if we want them to rehash
+     *               the entire table at once.
+     */
+    public DoubleHashingHashTable(boolean soft, boolean incremental) {
+    	this(soft, incremental, DEFAULT_MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructor with soft deletion, incremental resizing and maximum load factor options. Initializes the internal
+     * storage with a size equal to the starting value of  {@link PrimeGenerator}.
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *               we want soft deletion, {@code false} otherwise.
+     * @param incremental A boolean indicator of whether we want to resize incrementally or not. {@code true} if and only if
+     *               we want resizes to migrate a few cells per insertion or deletion, {@code false} if we want them to rehash
+     *               the entire table at once.
+     * @param maxLoadFactor The share of non-empty cells past which an insertion enlarges the table. Tombstones count
+     *               as non-empty.
+     * @throws IllegalArgumentException if maxLoadFactor is not strictly between 0 (zero) and 1.
+     */
+    public DoubleHashingHashTable(boolean soft, boolean incremental, double maxLoadFactor) {
+    	if(!(maxLoadFactor > 0 && maxLoadFactor < 1)) {
+    		throw new IllegalArgumentException("Provided: maxLoadFactor=" + maxLoadFactor);
+    	}
+    	primeGenerator = new PrimeGenerator();
+        table = new KVPair[primeGenerator.getCurrPrime()];
+        softFlag = soft;
+        this.incremental = incremental;
+        this.maxLoadFactor = maxLoadFactor;
+        tombCount = 0;
+        count = 0;
+    }
+
+    @Override
+    public Probes put(String key, String value) {
+
+    	if(key == null || value == null) {
+    		throw new IllegalArgumentException("Either key or the value is null.");
+    	}
+    	int probeCount = migrate(MIGRATION_STEP);
+    	int occupied = this.count + deadCount;
+    	if(isFull(occupied) && shouldCompact(tombCount)) { // Reclaim the tombstones instead of growing.
+    		probeCount += compact();
+    		count -= tombCount;
+    		this.tombCount = 0;
+    	} else if(isFull(occupied) && incremental) {
+    		probeCount += startMigration(primeGenerator.getNextPrime());
+    		count -= tombCount; // Tombstones of the old table are never migrated.
+    		this.tombCount = 0;
+    		this.deadCount = 0;
+    	} else if(isFull(occupied)) {
+    		probeCount += rehash(primeGenerator.getNextPrime());
+    		count -= tombCount;
+    		this.tombCount = 0;
+    		deadCount = 0;
+    	}
+    	return indexPut(upsert(key, value, probeCount));
+    }
+
+    @Override
+    protected int putHelper(KVPair[] arr, KVPair pair) {
+
+    	int hash = pair.getHash(), probeCount = 1;
+    	int index = indexOf(hash, arr.length), step = step(hash, arr.length);
+    	while(arr[index] != null) {
+    		probeCount++;
+    		index = (index + step) % arr.length;
+    	}
+    	arr[index] = pair;
+    	return probeCount;
+    }
+
+    @Override
+    public Probes get(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int hash = hashOf(key), index = indexOf(hash, table.length), step = step(hash, table.length), probeCount = 1;
+    	// The probe sequence repeats after table.length probes, and may only go through occupied cells.
+    	while(table[index] != null && probeCount <= table.length) {
+    		if(table[index] != TOMBSTONE && table[index].hasKey(key, hash)) {
+    			return new Probes(table[index].getValue(), probeCount);
+    		}
+    		probeCount++;
+    		index = (index + step) % table.length;
+    	}
+    	return getFromOldTable(key, probeCount);
+    }
+
+    @Override
+    protected Probes delete(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int probeCount = 1 + migrate(MIGRATION_STEP);
+    	int hash = hashOf(key), index = indexOf(hash, table.length), step = step(hash, table.length);
+    	for(int attempt = 0; table[index] != null && attempt < table.length; attempt++) {
+    		KVPair temp = table[index];
+    		if(temp != TOMBSTONE && temp.hasKey(key, hash)) {
+    			// Either way, the cell stays a TOMBSTONE so that the probe sequences through it stay intact.
+    			table[index] = TOMBSTONE;
+    			if(softFlag) {
+    				this.tombCount++;
+    			} else {
+    				count--;
+    				deadCount++;
+    				if(deadCount * DEAD_CELL_RATIO >= table.length) {
+    					probeCount += compact();
+    					deadCount = 0;
+    				}
+    			}
+    			return new Probes(temp.getValue(), probeCount);
+    		}
+    		probeCount++;
+    		index = (index + step) % table.length;
+    	}
+    	return removeFromOldTable(key, probeCount);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+
+    	return valueOf(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
+    	for(KVPair pair: table) {
+    		if(pair != null && pair != TOMBSTONE && pair.getValue().equals(value)) {
+	    		return true;
+    		}
+    	}
+    	return oldTableContainsValue(value);
+    }
+
+    @Override
+    public int size(){
+       return count - tombCount;
+    }
+
+    @Override
+    public int capacity() {
+       return table.length;
+    }
+
+    @Override
+    public int getTombstoneCount() {
+        return tombCount + deadCount;
+    }
+
+    @Override
+    protected void dropTombstones() {
+    	count -= tombCount;
+    	this.tombCount = 0;
+    	deadCount = 0;
+    }
+
+    @Override
+    public void reserve(int records) {
+    	if(enlargeFor(records)) {
+    		dropTombstones();
+    	}
+    }
+}
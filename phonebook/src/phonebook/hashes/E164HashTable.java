@@ -0,0 +1,409 @@
+package phonebook.hashes;
+
+import java.util.function.BiConsumer;
+import phonebook.utils.Probes;
+
+/**
+ * <p>{@link E164HashTable} is a {@link HashTable} specialized for phone numbers in the E.164 format: up to 15 digits,
+ * the first of which is not 0 (zero), optionally after a &quot; + &quot;. Such a key is parsed into a {@code long},
+ * which is all that the table stores of it: keys live in a {@code long[]} array, with Linear Probing as the collision
+ * resolution strategy, and their values in a parallel array. A record therefore costs no {@link String} for its key
+ * nor a {@link phonebook.utils.KVPair}, and every probe compares two {@code long}s instead of two
+ * {@link String}s. The key {@link String}s are rebuilt from their {@code long}s when needed, by {@link #forEach}.</p>
+ *
+ * <p>Any other key, such as a number with spaces or dashes, is stored in a {@link SwissHashTable} instead, created on
+ * the first such key. Both kinds of keys can therefore be mixed, but only E.164 numbers enjoy the savings.</p>
+ *
+ * <p>Deleting a key shifts the keys that follow it in its cluster back, like the hard deletion of
+ * {@link LinearProbingHashTable}, so the table never holds tombstones. It doubles once half full and halves once an
+ * eighth full.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see CollisionResolver
+ */
+public class E164HashTable implements HashTable {
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+
+	/**
+	 * The capacity of a new {@link E164HashTable}.
+	 */
+	public static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The largest capacity of the array of E.164 numbers, the largest power of two that an array can have.
+	 */
+	public static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * The most digits that an E.164 number has.
+	 */
+	public static final int MAX_DIGITS = 15;
+
+	private static final long EMPTY = 0; // No parsed number is 0, since numbers never start with a 0.
+	private static final long PLUS = 1L << 62; // Set for numbers written with a leading "+".
+
+	private long[] keys;
+	private String[] values;
+	private int count;
+	private SwissHashTable others; // The keys that are not E.164 numbers, or null if there has been none yet.
+	private ValueIndex valueIndex;
+	private HashFunction hashFunction = HashFunction.STRING_HASH_CODE; // For the other keys.
+	private long seed; // Mixed into every number before it's hashed.
+
+	// The key as a positive long, or EMPTY if it is not an E.164 number.
+	private static long encode(String key) {
+		int i = (key.length() > 0 && key.charAt(0) == '+') ? 1 : 0, digits = key.length() - i;
+		if(digits < 1 || digits > MAX_DIGITS || key.charAt(i) == '0') {
+			return EMPTY;
+		}
+		long number = 0;
+		for(; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if(c < '0' || c > '9') {
+				return EMPTY;
+			}
+			number = 10 * number + (c - '0');
+		}
+		return key.charAt(0) == '+' ? number | PLUS : number;
+	}
+
+	private static String decode(long code) {
+		String digits = Long.toString(code & ~PLUS);
+		return (code & PLUS) != 0 ? "+" + digits : digits;
+	}
+
+	// The Murmur3 64-bit finalizer, since the capacity is a power of two.
+	private static long mix(long code) {
+		code ^= code >>> 33;
+		code *= 0xff51afd7ed558ccdL;
+		code ^= code >>> 33;
+		code *= 0xc4ceb9fe1a85ec53L;
+		code ^= code >>> 33;
+		return code;
+	}
+
+	private int home(long code) {
+		return (int)mix(code ^ seed) & (keys.length - 1);
+	}
+
+	/* Returns the cell of code or, if it's not there, the bitwise complement (always negative) of the empty cell that
+	 * ends its probe sequence. Unless probes is null, the cells we looked at are added to probes[0]. */
+	private int find(long code, int[] probes) {
+		int mask = keys.length - 1, index = home(code), probeCount = 1;
+		while(keys[index] != EMPTY && keys[index] != code) {
+			index = (index + 1) & mask;
+			probeCount++;
+		}
+		if(probes != null) {
+			probes[0] += probeCount;
+		}
+		return keys[index] == EMPTY ? ~index : index;
+	}
+
+	// Moves every record into new arrays of the given length. Returns the number of probes.
+	private int rehash(int length) {
+		long[] oldKeys = keys;
+		String[] oldValues = values;
+		keys = new long[length];
+		values = new String[length];
+		int probeCount = 0;
+		for(int i = 0; i < oldKeys.length; i++) {
+			probeCount++; //for deleting from the old table
+			if(oldKeys[i] != EMPTY) {
+				int[] probes = {0};
+				int index = ~find(oldKeys[i], probes);
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+				probeCount += probes[0];
+			}
+		}
+		return probeCount;
+	}
+
+	/* Inserts or updates code, and returns the value it was mapped to before, if any. Unless probes is null, the
+	 * probes made are added to probes[0]. */
+	private String upsert(long code, String value, int[] probes) {
+		int index = find(code, probes);
+		String previous = null;
+		if(index >= 0) { // An update: no new record.
+			previous = values[index];
+			values[index] = value;
+		} else {
+			if(count + 1 > keys.length / 2) {
+				if(keys.length == MAX_CAPACITY) {
+					throw new IllegalStateException("The table cannot grow past " + MAX_CAPACITY + " cells.");
+				}
+				int probeCount = rehash(2 * keys.length);
+				index = find(code, probes);
+				if(probes != null) {
+					probes[0] += probeCount;
+				}
+			}
+			index = ~index;
+			keys[index] = code;
+			values[index] = value;
+			count++;
+		}
+		if(valueIndex != null) {
+			valueIndex.replace(previous, value);
+		}
+		return previous;
+	}
+
+	/* Removes code, and returns its value, or null if it's not there. Unless probes is null, the probes made are
+	 * added to probes[0]. */
+	private String delete(long code, int[] probes) {
+		int index = find(code, probes);
+		if(index < 0) {
+			return null;
+		}
+		String retVal = values[index];
+		int mask = keys.length - 1, hole = index, probeCount = 0;
+		// Shift back every following key of the cluster whose probe sequence goes through the hole.
+		for(int i = (hole + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+			probeCount++;
+			if(((i - home(keys[i])) & mask) >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				values[hole] = values[i];
+				hole = i;
+			}
+		}
+		keys[hole] = EMPTY;
+		values[hole] = null;
+		count--;
+		if(count * 8 < keys.length && keys.length > INITIAL_CAPACITY) {
+			probeCount += rehash(keys.length / 2);
+		}
+		if(probes != null) {
+			probes[0] += probeCount + 1; // Checking the cell after the cluster.
+		}
+		if(valueIndex != null) {
+			valueIndex.remove(retVal);
+		}
+		return retVal;
+	}
+
+	private SwissHashTable others() {
+		if(others == null) {
+			others = new SwissHashTable();
+			others.setHashFunction(hashFunction);
+			others.setValueIndexed(valueIndex != null);
+		}
+		return others;
+	}
+
+    /* ******************************************/
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+    /* **************************************** */
+
+    /**
+     * Default constructor. Initializes the internal storage with {@link #INITIAL_CAPACITY} cells.
+     */
+    public E164HashTable() {
+    	keys = new long[INITIAL_CAPACITY];
+    	values = new String[INITIAL_CAPACITY];
+    	count = 0;
+    }
+
+    /**
+     * Replaces the {@link HashFunction} of an empty table. The keys that are not E.164 numbers are hashed with it, and
+     * the numbers are mixed with a seed taken from its hash codes, so a {@link SeededHashFunction} keeps crafted keys
+     * of either kind from piling up in the same cells.
+     * @param hashFunction The new hash function.
+     * @throws IllegalArgumentException if hashFunction is {@code null}.
+     * @throws IllegalStateException if the table holds any record.
+     */
+    public void setHashFunction(HashFunction hashFunction) {
+    	if(hashFunction == null) {
+    		throw new IllegalArgumentException("The hash function is null.");
+    	}
+    	if(size() != 0) {
+    		throw new IllegalStateException("Can only replace the hash function of an empty table.");
+    	}
+    	this.hashFunction = hashFunction;
+    	seed = ((long)hashFunction.hash("+") << 32) | (hashFunction.hash("0") & 0xffffffffL);
+    	if(others != null) {
+    		others.setHashFunction(hashFunction);
+    	}
+    }
+
+    /**
+     * Parses key as an E.164 number: an optional &quot; + &quot; followed by 1 to {@link #MAX_DIGITS} digits, the first
+     * of which is not 0 (zero).
+     * @param key The key to parse.
+     * @return {@code true} if, and only if, key is an E.164 number, which this table stores as a {@code long}.
+     */
+    public static boolean isE164(String key) {
+    	return key != null && encode(key) != EMPTY;
+    }
+
+    @Override
+    public Probes put(String key, String value) {
+
+    	if(key == null || value == null) {
+    		throw new IllegalArgumentException("Either key or the value is null.");
+    	}
+    	long code = encode(key);
+    	if(code == EMPTY) {
+    		return others().put(key, value);
+    	}
+    	int[] probes = new int[1];
+    	String previous = upsert(code, value, probes);
+    	return new Probes(value, probes[0], previous);
+    }
+
+    @Override
+    public String putValue(String key, String value) {
+    	if(key == null || value == null) {
+    		throw new IllegalArgumentException("Either key or the value is null.");
+    	}
+    	long code = encode(key);
+    	return (code == EMPTY) ? others().putValue(key, value) : upsert(code, value, null);
+    }
+
+    @Override
+    public Probes get(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	long code = encode(key);
+    	if(code == EMPTY) {
+    		return (others == null) ? new Probes(null, 0) : others.get(key);
+    	}
+    	int[] probes = new int[1];
+    	int index = find(code, probes);
+    	return new Probes(index < 0 ? null : values[index], probes[0]);
+    }
+
+    @Override
+    public String valueOf(String key) {
+    	if(key == null) {
+    		return null;
+    	}
+    	long code = encode(key);
+    	if(code == EMPTY) {
+    		return (others == null) ? null : others.valueOf(key);
+    	}
+    	int index = find(code, null);
+    	return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Probes remove(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	long code = encode(key);
+    	if(code == EMPTY) {
+    		return (others == null) ? new Probes(null, 0) : others.remove(key);
+    	}
+    	int[] probes = new int[1];
+    	String retVal = delete(code, probes);
+    	return new Probes(retVal, probes[0]);
+    }
+
+    @Override
+    public String removeValue(String key) {
+    	if(key == null) {
+    		return null;
+    	}
+    	long code = encode(key);
+    	if(code == EMPTY) {
+    		return (others == null) ? null : others.removeValue(key);
+    	}
+    	return delete(code, null);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+    	return valueOf(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+    	if(others != null && others.containsValue(value)) {
+    		return true;
+    	}
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
+    	for(int i = 0; i < keys.length; i++) {
+    		if(keys[i] != EMPTY && values[i].equals(value)) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+
+    @Override
+    public void setValueIndexed(boolean indexed) {
+    	if(others != null) {
+    		others.setValueIndexed(indexed);
+    	}
+    	if(!indexed) {
+    		valueIndex = null;
+    	} else if(valueIndex == null) {
+    		valueIndex = new ValueIndex();
+    		for(int i = 0; i < keys.length; i++) {
+    			if(keys[i] != EMPTY) {
+    				valueIndex.add(values[i]);
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+    	for(int i = 0; i < keys.length; i++) {
+    		if(keys[i] != EMPTY) {
+    			action.accept(decode(keys[i]), values[i]);
+    		}
+    	}
+    	if(others != null) {
+    		others.forEach(action);
+    	}
+    }
+
+    @Override
+    public int size() {
+        return count + (others == null ? 0 : others.size());
+    }
+
+    /**
+     * Returns the number of cells of the {@code long[]} array of E.164 numbers, plus the capacity of the table of
+     * the other keys, if any.
+     * @return the number of cells in the table.
+     */
+    @Override
+    public int capacity() {
+        return keys.length + (others == null ? 0 : others.capacity());
+    }
+
+    /**
+     * Makes room for records E.164 numbers without resizing. The table of the other keys is left alone, since they are
+     * expected to be rare.
+     * @param records The number of records that the table is expected to hold.
+     * @throws IllegalArgumentException if records exceed half of {@link #MAX_CAPACITY}.
+     */
+    @Override
+    public void reserve(int records) {
+    	if(records > MAX_CAPACITY / 2) {
+    		throw new IllegalArgumentException("Cannot make room for " + records + " records in " + MAX_CAPACITY + " cells.");
+    	}
+    	int length = keys.length;
+    	while(records > length / 2) {
+    		length *= 2;
+    	}
+    	if(length != keys.length) {
+    		rehash(length);
+    	}
+    }
+}
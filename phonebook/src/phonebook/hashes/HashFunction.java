@@ -0,0 +1,53 @@
+package phonebook.hashes;
+
+/**
+ * <p>{@link HashFunction} is the strategy with which a {@link HashTable} turns a key into a cell of its storage. It
+ * works in two steps: {@link #hash(String)} turns the key into a 32-bit hash code, which tables cache next to the
+ * key, and {@link #index(int, int)} reduces a cached hash code to an index in an array of a given length.</p>
+ *
+ * <p>{@link #STRING_HASH_CODE}, the default of every table, is the hash function that the tables have always used:
+ * {@link String#hashCode()} with its top bit masked, modulo the length. It is fast and deterministic, but anyone can
+ * craft many keys with the same {@link String#hashCode()}, which all end up in the same cell.
+ * {@link SeededHashFunction} resists such inputs.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see SeededHashFunction
+ * @see OpenAddressingHashTable#setHashFunction(HashFunction)
+ * @see SeparateChainingHashTable#setHashFunction(HashFunction)
+ * @see CompactLinearProbingHashTable#setHashFunction(HashFunction)
+ * @see SwissHashTable#setHashFunction(HashFunction)
+ * @see E164HashTable#setHashFunction(HashFunction)
+ */
+public interface HashFunction {
+
+    /**
+     * The hash function of {@link String#hashCode()} and a modulo.
+     */
+    HashFunction STRING_HASH_CODE = new HashFunction() {
+        @Override
+        public int hash(String key) {
+            return key.hashCode();
+        }
+
+        @Override
+        public int index(int hash, int length) {
+            return (hash & 0x7fffffff) % length;
+        }
+    };
+
+    /**
+     * Hashes a key.
+     * @param key The key to hash. Must not be {@code null}.
+     * @return The 32-bit hash code of key.
+     */
+    int hash(String key);
+
+    /**
+     * Reduces a hash code returned by {@link #hash(String)} to an index. Equal hash codes always give the same index.
+     * @param hash The hash code.
+     * @param length The length of the array to index, which must be positive.
+     * @return An index in [0, length).
+     */
+    int index(int hash, int length);
+}
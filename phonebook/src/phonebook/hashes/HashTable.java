@@ -1,5 +1,6 @@
 package phonebook.hashes;
 
+import java.util.function.BiConsumer;
 import phonebook.utils.Probes;
 
 /**
@@ -49,6 +50,56 @@ public interface HashTable {
      * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
      */
     Probes remove(String key);
+
+    /**
+     * The same search as {@link #get(String)}, without counting probes or creating {@link phonebook.utils.Probes}: the
+     * fast path for callers which only need the value. The default implementation calls {@link #get(String)}.
+     * @param key The key to search for.
+     * @return The value associated with key, or {@code null} if key is {@code null} or not in the {@link HashTable}.
+     */
+    default String valueOf(String key) {
+        return (key == null) ? null : get(key).getValue();
+    }
+
+    /**
+     * The same insertion as {@link #put(String, String)}, without creating {@link phonebook.utils.Probes}. The default
+     * implementation calls {@link #put(String, String)}.
+     * @param key The record's key.
+     * @param value The record's value.
+     * @return The value that key was mapped to before, or {@code null} if key is new.
+     * @throws IllegalArgumentException if either argument is {@code null}.
+     */
+    default String putValue(String key, String value) {
+        return put(key, value).getPreviousValue();
+    }
+
+    /**
+     * The same deletion as {@link #remove(String)}, without creating {@link phonebook.utils.Probes}. The default
+     * implementation calls {@link #remove(String)}.
+     * @param key The key to search for.
+     * @return The value that was associated with key, or {@code null} if key is {@code null} or not in the {@link HashTable}.
+     */
+    default String removeValue(String key) {
+        return remove(key).getValue();
+    }
+
+    /**
+     * Looks up a batch of keys at once, writing the value of keys[i], or {@code null} if it is missing or {@code null}
+     * itself, into values[i]. No {@link phonebook.utils.Probes} are created. The default implementation simply calls
+     * {@link #valueOf(String)} for every key; tables override it to hash every key first and then visit the keys in the
+     * order of their cells, so that consecutive lookups touch nearby memory.
+     * @param keys The keys to search for.
+     * @param values The array to write the values into. Must be at least as long as keys.
+     * @throws IllegalArgumentException if either array is {@code null}, or values is shorter than keys.
+     */
+    default void getAll(String[] keys, String[] values) {
+        if(keys == null || values == null || values.length < keys.length) {
+            throw new IllegalArgumentException("Provided arrays are null or too short.");
+        }
+        for(int i = 0; i < keys.length; i++) {
+            values[i] = valueOf(keys[i]);
+        }
+    }
    
     /**
      * Queries the {@link HashTable} about the existence of the key key in its internal storage. This method is expected to run in <em>amortized constant time</em>.
@@ -61,11 +112,29 @@ public interface HashTable {
      * Queries the {@link HashTable} about the existence of the value value in its internal storage. This method is expected to run in <em>linear time</em> (i.e
      * containsValue() is expected to be an <b>inefficient</b> operation. This is to be expected, since this {@link HashTable} hashes \
      * keys, not values.
+     * Unless {@link #setValueIndexed(boolean)} turned on the value index, which makes it <em>expected constant time</em>.
      * @param value The value to search for.
      * @return {@code true} if key is the key of some record in our hash table, {@code false} otherwise.
      */
     boolean containsValue(String value);
 
+    /**
+     * Turns the value index of this {@link HashTable} on or off. The index counts the records holding each value and
+     * is kept up to date by every insertion, update and deletion, so that {@link #containsValue(String)} runs in
+     * <em>expected constant time</em>. It is off by default, since it costs an extra map entry per distinct value and
+     * an extra map update per modification: {@link phonebook.Phonebook}, for instance, already answers reverse lookups
+     * with its second table. Turning it on indexes every record already stored, in linear time.
+     * @param indexed {@code true} to maintain the index, {@code false} to drop it.
+     */
+    void setValueIndexed(boolean indexed);
+
+    /**
+     * Calls action on the key and the value of every record, in no particular order. The {@link HashTable} must not
+     * be modified until this method returns.
+     * @param action The action to perform on every record.
+     */
+    void forEach(BiConsumer<String, String> action);
+
     /**
      * Returns the number of records in this {@link HashTable}. Please note that this is <b>not</b> the same as returning the hash table's <b>capacity</b>
      * in Open Addressing collision resolution schemes (like Linear Probing)!
@@ -81,4 +150,14 @@ public interface HashTable {
      * @return the number of cells in the table.
      */
     int capacity();
+
+    /**
+     * Makes room for records records in total, so that inserting that many never resizes this {@link HashTable}.
+     * Loading a known number of records after this call rehashes at most once, instead of once per doubling of the
+     * capacity. This method never shrinks the table. Tables whose capacity cannot reach records throw an unchecked
+     * exception instead of resizing: {@link phonebook.utils.NoMorePrimesException} for the tables of prime capacity, and
+     * {@link IllegalArgumentException} for those of power-of-two capacity.
+     * @param records The number of records that the table is expected to hold.
+     */
+    void reserve(int records);
 }
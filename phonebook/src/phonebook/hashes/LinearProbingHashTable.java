@@ -27,6 +27,29 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
     /* ********************************************************************/
 	private int tombCount;
+	private boolean backwardShift;
+
+	/* Hard-deletes the record at hole by shifting the rest of its cluster back, in place: every record that would
+	 * still be reachable from its home cell moves into the hole, which then moves to the cell it vacated.
+	 * Returns the number of cells examined after hole, up to and including the empty cell that ends the cluster. */
+	private int shiftBack(int hole) {
+		table[hole] = null;
+		int index = hole, probeCount = 0;
+		while(true) {
+			index = (index + 1) % table.length;
+			probeCount++;
+			if(table[index] == null) {
+				return probeCount;
+			}
+			int home = indexOf(table[index].getHash(), table.length);
+			boolean homeInGap = (hole <= index) ? (hole < home && home <= index) : (hole < home || home <= index);
+			if(!homeInGap) { // Its home is at or before the hole, so the hole is on its probe sequence.
+				table[hole] = table[index];
+				table[index] = null;
+				hole = index;
+			}
+		}
+	}
     /* ******************************************/
     /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
     /* **************************************** */
@@ -38,12 +61,44 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
      *             we want soft deletion, {@code false} otherwise.
      */
     public LinearProbingHashTable(boolean soft) {
+    	this(soft, false);
+    }
+
+    /**
+     * Constructor with soft deletion and incremental resizing options. Initializes the internal storage with a size equal
+     * to the starting value of  {@link PrimeGenerator}.
+     *
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *             we want soft deletion, {@code false} otherwise.
+     * @param incremental A boolean indicator of whether we want to resize incrementally or not. {@code true} if and only if
+     *             we want resizes to migrate a few cells per insertion or deletion, {@code false} if we want them to rehash
+     *             the entire table at once.
+     */
+    public LinearProbingHashTable(boolean soft, boolean incremental) {
+    	this(soft, incremental, false);
+    }
+
+    /**
+     * Constructor with soft deletion, incremental resizing and backward-shift deletion options. Initializes the internal
+     * storage with a size equal to the starting value of  {@link PrimeGenerator}.
+     *
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *             we want soft deletion, {@code false} otherwise.
+     * @param incremental A boolean indicator of whether we want to resize incrementally or not. {@code true} if and only if
+     *             we want resizes to migrate a few cells per insertion or deletion, {@code false} if we want them to rehash
+     *             the entire table at once.
+     * @param backwardShift A boolean indicator of how hard deletion repairs the cluster after the deleted record. {@code true}
+     *             if and only if we want to shift the following records back toward their home cells in place, {@code false}
+     *             if we want to reinsert them one by one. Has no effect with soft deletion.
+     */
+    public LinearProbingHashTable(boolean soft, boolean incremental, boolean backwardShift) {
     	primeGenerator = new PrimeGenerator();
         table = new KVPair[primeGenerator.getCurrPrime()];
-        softFlag = soft;     
+        softFlag = soft;
+        this.incremental = incremental;
+        this.backwardShift = backwardShift;
         count = 0;
         tombCount = 0;
-        
     }
 
     /**
@@ -55,11 +110,13 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
      * constant time</em>.
      * <p>
      * Instances of {@link LinearProbingHashTable} will follow the writeup's guidelines about how to internally resize
-     * the hash table when the capacity exceeds 50&#37;
+     * the hash table when the capacity exceeds 50&#37;. If key is already stored, its value is updated in place, in the
+     * same pass that searches for it, and no new cell is taken.
      *
      * @param key   The record's key.
      * @param value The record's value.
-     * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+     * @return The {@link phonebook.utils.Probes} with the value added, the number of probes it makes, and the value
+     * that key was mapped to before, if any.
      * @throws IllegalArgumentException if either argument is {@code null}.
      */
     @Override
@@ -68,14 +125,22 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     	if(key == null || value == null) {
     		throw new IllegalArgumentException("Either key or the value is null.");
     	}
-    	int probeCount = 0;
-    	if(this.count >= table.length/2 + 1) {//resize when we have 4 elements for table of size 7
+    	int probeCount = migrate(MIGRATION_STEP);
+    	if(this.count >= table.length/2 + 1 && shouldCompact(tombCount)) { // Reclaim the tombstones instead of growing.
+    		probeCount += compact();
+    		count -= tombCount;
+    		this.tombCount = 0;
+    	} else if(this.count >= table.length/2 + 1 && incremental) {
+    		probeCount += startMigration(primeGenerator.getNextPrime());
+    		count -= tombCount; // Tombstones of the old table are never migrated.
+    		this.tombCount = 0;
+    	} else if(this.count >= table.length/2 + 1) {//resize when we have 4 elements for table of size 7
 			
     		KVPair[] bigger = new KVPair[primeGenerator.getNextPrime()];
     		for(KVPair pair: table) {
     			probeCount++; //for deleting from the old table
     			if(pair != null && pair != TOMBSTONE) {
-    				probeCount += putHelper(bigger, pair.getKey(), pair.getValue());
+    				probeCount += putHelper(bigger, pair);
     				//for reinserting into the new table
     			}
     		}
@@ -83,17 +148,16 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     		this.tombCount = 0;
     		table = bigger; //point reference of table to bigger table
   		}
-    	probeCount += putHelper(table, key, value);
-    	this.count++;
-    	return new Probes(value, probeCount);
+    	return indexPut(upsert(key, value, probeCount));
     	
     }
-    private int putHelper(KVPair[] arr, String key, String value) {
+    @Override
+    protected int putHelper(KVPair[] arr, KVPair pair) {
     	
-    	int index = (key.hashCode() & 0x7fffffff) % arr.length, probeCount = 1;
+    	int index = indexOf(pair.getHash(), arr.length), probeCount = 1;
     	//if the index we are inserting is empty
     	if(arr[index] == null) {
-    		arr[index] = new KVPair(key, value);
+    		arr[index] = pair;
     	} else {
     		
     		while(arr[index] != null) {
@@ -104,7 +168,7 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     			}
     			probeCount++;
     		}
-    		arr[index] = new KVPair(key, value);
+    		arr[index] = pair;
     		
     	}
     	return probeCount;
@@ -116,10 +180,10 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {
-    		int index = hash(key), probeCount = 1;
+    		int hash = hashOf(key), index = indexOf(hash, table.length), probeCount = 1;
     		while(table[index] != null) { //|1| 2| 3| null |4| null |7|
     			
-    			if(table[index].getKey().equals(key)) {
+    			if(table[index].hasKey(key, hash)) {
     				return new Probes(table[index].getValue(), probeCount);
     			}
     			if(index == table.length -1) { //if the index is last index, loop back around
@@ -129,7 +193,7 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     			}
     			probeCount++;
     		}
-    		return new Probes(null, probeCount);
+    		return getFromOldTable(key, probeCount);
     	}
     }
 
@@ -143,18 +207,18 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
      * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
      */
     @Override
-    public Probes remove(String key) {
+    protected Probes delete(String key) {
         
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {
-    		int index = hash(key), probeCount = 1;
+    		int hash = hashOf(key), index = indexOf(hash, table.length), probeCount = 1 + migrate(MIGRATION_STEP);
     		if(softFlag) { // soft deletion
     			
     			while(table[index] != null) { //|1| 2| 3| null |4| null |7|
     				
     				KVPair temp = table[index];
-        			if(table[index].getKey().equals(key)) {
+        			if(table[index].hasKey(key, hash)) {
         				table[index] = TOMBSTONE;
         				this.tombCount++;
         				return new Probes(temp.getValue(), probeCount);
@@ -170,7 +234,13 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     		} else { // hard deletion
     			while(table[index] != null) { //|("hi", 2)| ("hello, 12) | ("bye", 13)| null |("no", 3)| null |("yes", 22)|
         			
-        			if(table[index].getKey().equals(key)) {
+        			if(table[index].hasKey(key, hash) && backwardShift) {
+        				KVPair retVal = table[index];
+        				probeCount += shiftBack(index);
+        				count--;
+        				return new Probes(retVal.getValue(), probeCount);
+        			}
+        			if(table[index].hasKey(key, hash)) {
         				KVPair retVal = table[index];
         				table[index++] = null; //deleting
         				if(index >= table.length) {
@@ -181,9 +251,9 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
         					
     						KVPair temp = table[index];
     						table[index] = null;
-    						probeCount += putHelper(table, temp.getKey(), temp.getValue());
+    						probeCount += putHelper(table, temp);
     						probeCount++; //count for going back to while loop to check next index
-    						index++;
+    						index = (index + 1) % table.length;
         				}
         				count--;
         				return new Probes(retVal.getValue(), probeCount);
@@ -196,7 +266,7 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
         			probeCount++;
         		}
     		}
-    		return new Probes(null, probeCount);
+    		return removeFromOldTable(key, probeCount);
     	}
     	
     }
@@ -207,28 +277,28 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
     	if(key == null) {
     		return false;
     	}
-    	if(table[hash(key)] == null) {
-    		return false;
-    	}
-    	int index = hash(key);
+    	int hash = hashOf(key), index = indexOf(hash, table.length);
     	while(table[index] != null) {
-    		if(table[index].getKey().equals(key)) {
+    		if(table[index].hasKey(key, hash)) {
     			return true;
     		}
-    		index++;
+    		index = (index + 1) % table.length;
     	}
-    	return false;
+    	return getFromOldTable(key, 0).getValue() != null;
     }
 
     @Override
     public boolean containsValue(String value) {
        
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
     	for(KVPair pair: table) {
-    		if(pair != null && pair.getValue().equals(value)) {
+    		if(pair != null && pair != TOMBSTONE && pair.getValue().equals(value)) {
 	    		return true;
     		}
     	}
-    	return false;
+    	return oldTableContainsValue(value);
     }
 
     @Override
@@ -236,8 +306,26 @@ public class LinearProbingHashTable extends OpenAddressingHashTable {
         return count-tombCount;
     }
 
+    @Override
+    public int getTombstoneCount() {
+        return tombCount;
+    }
+
     @Override
     public int capacity() {
         return table.length;
     }
+
+    @Override
+    protected void dropTombstones() {
+    	count -= tombCount;
+    	this.tombCount = 0;
+    }
+
+    @Override
+    public void reserve(int records) {
+    	if(enlargeFor(records)) {
+    		dropTombstones();
+    	}
+    }
 }
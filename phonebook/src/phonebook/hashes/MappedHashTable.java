@@ -0,0 +1,509 @@
+package phonebook.hashes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import phonebook.utils.Probes;
+
+/**
+ * <p>{@link MappedHashTable} is a <b>persistent</b>, openly addressed {@link HashTable} which lives in a file mapped
+ * into memory with {@link FileChannel#map(FileChannel.MapMode, long, long)}. The file starts with a small header,
+ * followed by an array of slots and then by the records. Each slot holds the hash code of its key and the offset of its
+ * record in the file; each record holds its key and its value as length-prefixed UTF-8. Collisions are resolved with
+ * Linear Probing over a power-of-two number of slots, and the hash code of a key only depends on its
+ * {@link String#hashCode()}, which is the same in every run, so that a file written by one process can be searched by
+ * the next.</p>
+ *
+ * <p>Opening an existing file only reads its header: the operating system pages the slots and the records in from its
+ * page cache as searches touch them, so a table of any size opens in constant time. Every modification writes
+ * straight into the mapping, and {@link #flush()} forces it to the disk. Nothing is written atomically, though: a
+ * crash in the middle of a modification may leave the file inconsistent.</p>
+ *
+ * <p>Updates that change the length of a value, and deletions, leave the old record behind as garbage. Once the slots
+ * are half full, counting tombstones, or once half of the records are garbage, the table is rewritten into a new file,
+ * which replaces the old one. A mapping is limited to 2 GiB, and so is the file, which
+ * holds at most {@link #MAX_CAPACITY} slots.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ */
+public class MappedHashTable implements HashTable, Closeable {
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+
+	/**
+	 * The number of slots of a new {@link MappedHashTable}.
+	 */
+	public static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The largest number of slots of a {@link MappedHashTable}, which take half of the largest mapping.
+	 */
+	public static final int MAX_CAPACITY = 1 << 27;
+
+	private static final int MAGIC = 0x50424d54; // "PBMT"
+	private static final int VERSION = 1;
+
+	// The header: the offsets of its fields, and its size.
+	private static final int MAGIC_AT = 0, VERSION_AT = 4, CAPACITY_AT = 8, COUNT_AT = 12, TOMBS_AT = 16,
+			DATA_END_AT = 20, GARBAGE_AT = 24;
+	private static final int HEADER_SIZE = 32;
+
+	// A slot holds the hash code of its key, and the offset of its record, or one of the two markers below.
+	private static final int SLOT_SIZE = 8;
+	private static final int EMPTY = 0, TOMBSTONE = -1;
+
+	private static final int MIN_DATA_SIZE = 1 << 12;
+
+	private final Path path;
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int capacity, count, tombCount;
+	private int dataEnd; // The offset past the last record, where the next one is appended.
+	private int garbage; // The bytes taken by records that were deleted or replaced.
+	private ValueIndex valueIndex;
+
+	// The Murmur3 finalizer. Capacities are powers of two, so every bit of the hash code has to reach the low bits.
+	private static int hashOf(String key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+
+	private static byte[] encode(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int dataStart(int capacity) {
+		return HEADER_SIZE + capacity * SLOT_SIZE;
+	}
+
+	// The size to map to hold needed bytes: wanted, as long as a mapping can be that large.
+	private static long mappingSize(long needed, long wanted) {
+		return Math.max(needed, Math.min(wanted, Integer.MAX_VALUE));
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long size) throws IOException {
+		if(size > Integer.MAX_VALUE) {
+			throw new IllegalStateException("A mapped table cannot grow past 2 GiB.");
+		}
+		return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	private static int slotAt(int slot) {
+		return HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	private int hashAt(int slot) {
+		return buffer.getInt(slotAt(slot));
+	}
+
+	private int recordAt(int slot) {
+		return buffer.getInt(slotAt(slot) + 4);
+	}
+
+	private void setSlot(int slot, int hash, int record) {
+		buffer.putInt(slotAt(slot), hash);
+		buffer.putInt(slotAt(slot) + 4, record);
+	}
+
+	private int recordLength(int record) {
+		int valueAt = record + 4 + buffer.getInt(record);
+		return valueAt + 4 + buffer.getInt(valueAt) - record;
+	}
+
+	private boolean bytesMatch(int at, byte[] bytes) {
+		if(buffer.getInt(at) != bytes.length) {
+			return false;
+		}
+		for(int i = 0; i < bytes.length; i++) {
+			if(buffer.get(at + 4 + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int valueAt(int record) {
+		return record + 4 + buffer.getInt(record);
+	}
+
+	private String readValue(int record) {
+		int at = valueAt(record);
+		byte[] bytes = new byte[buffer.getInt(at)];
+		buffer.get(at + 4, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void writeHeader() {
+		buffer.putInt(COUNT_AT, count);
+		buffer.putInt(TOMBS_AT, tombCount);
+		buffer.putInt(DATA_END_AT, dataEnd);
+		buffer.putInt(GARBAGE_AT, garbage);
+	}
+
+	private void readHeader() throws IOException {
+		if(buffer.capacity() < HEADER_SIZE || buffer.getInt(MAGIC_AT) != MAGIC || buffer.getInt(VERSION_AT) != VERSION) {
+			throw new IOException("Not a mapped hash table: " + path);
+		}
+		capacity = buffer.getInt(CAPACITY_AT);
+		count = buffer.getInt(COUNT_AT);
+		tombCount = buffer.getInt(TOMBS_AT);
+		dataEnd = buffer.getInt(DATA_END_AT);
+		garbage = buffer.getInt(GARBAGE_AT);
+	}
+
+	/* Returns the slot of key or, if it's not there, the bitwise complement (always negative) of the first tombstone
+	 * or empty slot of its probe sequence, which is where it would be inserted. Unless probes is null, the slots we
+	 * looked at are added to probes[0]. */
+	private int find(byte[] key, int hash, int[] probes) {
+		int mask = capacity - 1, slot = hash & mask, insertAt = -1, probeCount = 1, result;
+		while(true) {
+			int record = recordAt(slot);
+			if(record == EMPTY) { // Slots are at most half full, counting tombstones, so there is always one.
+				result = ~(insertAt == -1 ? slot : insertAt);
+				break;
+			}
+			if(record == TOMBSTONE) {
+				if(insertAt == -1) {
+					insertAt = slot;
+				}
+			} else if(hashAt(slot) == hash && bytesMatch(record, key)) {
+				result = slot;
+				break;
+			}
+			slot = (slot + 1) & mask;
+			probeCount++;
+		}
+		if(probes != null) {
+			probes[0] += probeCount;
+		}
+		return result;
+	}
+
+	// Appends a record to the end of the file, growing the mapping if needed. Returns its offset.
+	private int append(byte[] key, byte[] value) {
+		int length = 8 + key.length + value.length;
+		if((long)dataEnd + length > buffer.capacity()) {
+			try {
+				buffer = map(channel, mappingSize((long)dataEnd + length, 2L * buffer.capacity()));
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		int record = dataEnd;
+		buffer.putInt(record, key.length);
+		buffer.put(record + 4, key);
+		buffer.putInt(record + 4 + key.length, value.length);
+		buffer.put(record + 8 + key.length, value);
+		dataEnd += length;
+		return record;
+	}
+
+	/* Rewrites the table into a new file with the given number of slots, dropping the tombstones and the garbage, and
+	 * replaces the old file with it. Returns the number of probes. */
+	private int rebuild(int newCapacity) {
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		int probeCount = 0, liveBytes = dataEnd - dataStart(capacity) - garbage;
+		try {
+			try(FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer copy = map(target, mappingSize((long)dataStart(newCapacity) + liveBytes,
+						(long)dataStart(newCapacity) + 2L * Math.max(liveBytes, MIN_DATA_SIZE)));
+				int end = dataStart(newCapacity), mask = newCapacity - 1;
+				for(int slot = 0; slot < capacity; slot++) {
+					probeCount++; //for deleting from the old table
+					int record = recordAt(slot);
+					if(record == EMPTY || record == TOMBSTONE) {
+						continue;
+					}
+					int hash = hashAt(slot), length = recordLength(record), index = hash & mask;
+					probeCount++;
+					while(copy.getInt(slotAt(index) + 4) != EMPTY) {
+						index = (index + 1) & mask;
+						probeCount++;
+					}
+					copy.put(end, buffer, record, length);
+					copy.putInt(slotAt(index), hash);
+					copy.putInt(slotAt(index) + 4, end);
+					end += length;
+				}
+				copy.putInt(MAGIC_AT, MAGIC);
+				copy.putInt(VERSION_AT, VERSION);
+				copy.putInt(CAPACITY_AT, newCapacity);
+				copy.putInt(COUNT_AT, count);
+				copy.putInt(TOMBS_AT, 0);
+				copy.putInt(DATA_END_AT, end);
+				copy.putInt(GARBAGE_AT, 0);
+				copy.force();
+			}
+			channel.close();
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			buffer = map(channel, channel.size());
+			readHeader();
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return probeCount;
+	}
+
+    /* ******************************************/
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+    /* **************************************** */
+
+    /**
+     * Opens the table stored in the given file, or creates an empty table with {@link #INITIAL_CAPACITY} slots if the
+     * file does not exist or is empty. Only the header of an existing file is read.
+     * @param path The file of the table. Resizes also write a temporary file next to it, named after it.
+     * @throws IOException if the file cannot be opened or mapped, or if it is not a {@link MappedHashTable}.
+     */
+    public MappedHashTable(Path path) throws IOException {
+    	this.path = path;
+    	channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    	try {
+    		if(channel.size() == 0) {
+    			buffer = map(channel, dataStart(INITIAL_CAPACITY) + MIN_DATA_SIZE); // Zero-filled: every slot is EMPTY.
+    			buffer.putInt(MAGIC_AT, MAGIC);
+    			buffer.putInt(VERSION_AT, VERSION);
+    			buffer.putInt(CAPACITY_AT, INITIAL_CAPACITY);
+    			capacity = INITIAL_CAPACITY;
+    			count = tombCount = garbage = 0;
+    			dataEnd = dataStart(INITIAL_CAPACITY);
+    			writeHeader();
+    		} else {
+    			buffer = map(channel, channel.size());
+    			readHeader();
+    		}
+    	} catch(IOException | RuntimeException e) {
+    		channel.close();
+    		throw e;
+    	}
+    }
+
+    /**
+     * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+     * keys and values, and we <b>will</b> test if you are throwing a {@link IllegalArgumentException} from your code
+     * if this method is given {@code null} arguments! It is important that we establish that no {@code null} entries
+     * can exist in our database because the semantics of {@link #get(String)} and {@link #remove(String)} are that they
+     * return {@code null} if, and only if, their key parameter is {@code null}. This method is expected to run in <em>amortized
+     * constant time</em>.
+     * <p>
+     * A new value of the same length in bytes as the old one overwrites it in place; any other update appends a new
+     * record.
+     *
+     * @param key   The record's key.
+     * @param value The record's value.
+     * @return The {@link phonebook.utils.Probes} with the value added, the number of slots it probes, and the value
+     * that key was mapped to before, if any.
+     * @throws IllegalArgumentException if either argument is {@code null}.
+     * @throws UncheckedIOException if the file cannot be grown or rewritten.
+     */
+    @Override
+    public Probes put(String key, String value) {
+
+    	if(key == null || value == null) {
+    		throw new IllegalArgumentException("Either key or the value is null.");
+    	}
+    	byte[] keyBytes = encode(key), valueBytes = encode(value);
+    	int hash = hashOf(key);
+    	int[] probes = new int[1];
+    	int slot = find(keyBytes, hash, probes);
+    	String previous = null;
+    	if(slot >= 0) {
+    		int record = recordAt(slot), at = valueAt(record);
+    		previous = readValue(record);
+    		if(buffer.getInt(at) == valueBytes.length) {
+    			buffer.put(at + 4, valueBytes);
+    		} else {
+    			garbage += recordLength(record);
+    			setSlot(slot, hash, append(keyBytes, valueBytes));
+    		}
+    	} else {
+    		if(count + tombCount + 1 > capacity / 2) {
+    			boolean grow = count + 1 > capacity / 4;
+    			if(grow && capacity == MAX_CAPACITY) {
+    				throw new IllegalStateException("A mapped table cannot grow past " + MAX_CAPACITY + " slots.");
+    			}
+    			probes[0] += rebuild(grow ? 2 * capacity : capacity);
+    			slot = find(keyBytes, hash, probes);
+    		}
+    		slot = ~slot;
+    		if(recordAt(slot) == TOMBSTONE) {
+    			tombCount--;
+    		}
+    		setSlot(slot, hash, append(keyBytes, valueBytes));
+    		count++;
+    	}
+    	if(valueIndex != null) {
+    		valueIndex.replace(previous, value);
+    	}
+    	writeHeader();
+    	if(garbage > MIN_DATA_SIZE && 2 * garbage > dataEnd - dataStart(capacity)) {
+    		probes[0] += rebuild(capacity);
+    	}
+    	return new Probes(value, probes[0], previous);
+    }
+
+    @Override
+    public Probes get(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	int slot = find(encode(key), hashOf(key), probes);
+    	return new Probes(slot < 0 ? null : readValue(recordAt(slot)), probes[0]);
+    }
+
+    @Override
+    public String valueOf(String key) {
+    	if(key == null) {
+    		return null;
+    	}
+    	int slot = find(encode(key), hashOf(key), null);
+    	return slot < 0 ? null : readValue(recordAt(slot));
+    }
+
+    /**
+     * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. If key does not exist in the database
+     * or if key = {@code null}, this method returns {@code null}. This method is expected to run in <em>amortized constant time</em>.
+     * The slot of key becomes a tombstone, and its record becomes garbage.
+     *
+     * @param key The key to search for.
+     * @return The {@link phonebook.utils.Probes} with associated value and the number of slots probed. If the key is {@code null}, return value {@code null}
+     * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+     */
+    @Override
+    public Probes remove(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	int hash = hashOf(key), slot = find(encode(key), hash, probes);
+    	if(slot < 0) {
+    		return new Probes(null, probes[0]);
+    	}
+    	int record = recordAt(slot);
+    	String retVal = readValue(record);
+    	garbage += recordLength(record);
+    	setSlot(slot, hash, TOMBSTONE);
+    	count--;
+    	tombCount++;
+    	if(valueIndex != null) {
+    		valueIndex.remove(retVal);
+    	}
+    	writeHeader();
+    	return new Probes(retVal, probes[0]);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+    	return key != null && find(encode(key), hashOf(key), null) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
+    	byte[] valueBytes = encode(value);
+    	for(int slot = 0; slot < capacity; slot++) {
+    		int record = recordAt(slot);
+    		if(record != EMPTY && record != TOMBSTONE && bytesMatch(valueAt(record), valueBytes)) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+
+    @Override
+    public void setValueIndexed(boolean indexed) {
+    	if(!indexed) {
+    		valueIndex = null;
+    	} else if(valueIndex == null) {
+    		valueIndex = new ValueIndex();
+    		for(int slot = 0; slot < capacity; slot++) {
+    			int record = recordAt(slot);
+    			if(record != EMPTY && record != TOMBSTONE) {
+    				valueIndex.add(readValue(record));
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+    	for(int slot = 0; slot < capacity; slot++) {
+    		int record = recordAt(slot);
+    		if(record != EMPTY && record != TOMBSTONE) {
+    			byte[] key = new byte[buffer.getInt(record)];
+    			buffer.get(record + 4, key);
+    			action.accept(new String(key, StandardCharsets.UTF_8), readValue(record));
+    		}
+    	}
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Makes room for records records in total, so that inserting that many never rebuilds this table to grow it.
+     * @param records The number of records that the table is expected to hold.
+     * @throws IllegalArgumentException if records exceed half of {@link #MAX_CAPACITY}.
+     */
+    @Override
+    public void reserve(int records) {
+    	if(records > MAX_CAPACITY / 2) {
+    		throw new IllegalArgumentException("Cannot make room for " + records + " records in " + MAX_CAPACITY + " slots.");
+    	}
+    	int length = capacity;
+    	while(records > length / 2) {
+    		length *= 2;
+    	}
+    	if(length != capacity) {
+    		rebuild(length);
+    	}
+    }
+
+    /**
+     * Forces every modification made so far to the disk.
+     */
+    public void flush() {
+    	buffer.force();
+    }
+
+    /**
+     * Flushes the table and closes its file. The table must not be used afterwards.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+    	flush();
+    	channel.close();
+    }
+}
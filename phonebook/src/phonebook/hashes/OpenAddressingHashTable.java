@@ -1,7 +1,10 @@
 package phonebook.hashes;
 
+import java.util.Arrays;
+import java.util.function.BiConsumer;
 import phonebook.utils.KVPair;
 import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
 
 /**
  * <p>{@code OpenAddressingHashTable} is an {@code abstract} class that models <b>openly addressed hash tables</b>, i.e
@@ -70,15 +73,17 @@ public abstract class OpenAddressingHashTable implements HashTable{
     protected boolean softFlag;
 
     /**
-     * A hash function that uses the default hash code for {@link String} types, but masks the top
-     * bit to avoid negative hashes.
-     * @param key The {@link String} key to find the hash code of.
-     * @return The hash code of the parameter {@link String} as produced by {@link String#hashCode()},
-     * but with the top bit masked.
-     * @see String#hashCode()
+     * Finds the address that key hashes to in {@link #table}, under the configured {@link #hashFunction}. This is
+     * {@link String#hashCode()} with the top bit masked only while the default {@link HashFunction#STRING_HASH_CODE}
+     * is in place. Searches that compare cached hash codes should call {@link #hashOf(String)} and
+     * {@link #indexOf(int, int)} instead, so that they hash key only once.
+     * @param key The {@link String} key to find the address of.
+     * @return The index of the cell of {@link #table} that key hashes to.
+     * @see #hashOf(String)
+     * @see #indexOf(int, int)
      */
     protected int hash(String key) {
-        return (key.hashCode() & 0x7fffffff) % table.length;
+        return indexOf(hashOf(key), table.length);
     }
 
     /**
@@ -105,4 +110,611 @@ public abstract class OpenAddressingHashTable implements HashTable{
     /* *** ADD ANY ADDITIONAL PROTECTED FIELDS OR METHODS HERE: ****** */
     /* *************************************************************** */
 
+    /**
+     * The number of cells of {@link #oldTable} that every insertion or deletion migrates into {@link #table}. The
+     * threshold of the next resize is at least half of the old capacity away, so two cells per operation would be
+     * enough; four leaves room for deletions that eat into the distance.
+     */
+    protected static final int MIGRATION_STEP = 4;
+
+    /**
+     * A store of the user's preference towards resizing. {@code true} means that the table resizes <b>incrementally</b>:
+     * {@link #startMigration(int)} only allocates the new array, and the records of the old one are moved over a
+     * few cells at a time by every subsequent insertion or deletion. {@code false} means that the entire table is
+     * rehashed in one go.
+     */
+    protected boolean incremental;
+
+    /**
+     * The array we are resizing away from, or {@code null} if no incremental resize is in progress. Records are never
+     * added to it; migrated and deleted records are replaced by {@link #TOMBSTONE}, so that the probe sequences of
+     * the records that are still there stay intact.
+     */
+    protected KVPair[] oldTable;
+
+    /**
+     * The next cell of {@link #oldTable} to migrate.
+     */
+    protected int migrationIndex;
+
+    /**
+     * The {@link HashFunction} that places keys in the table, {@link HashFunction#STRING_HASH_CODE} by default. Every
+     * stored {@link KVPair} caches the hash code of its key under this function.
+     */
+    protected HashFunction hashFunction = HashFunction.STRING_HASH_CODE;
+
+    /**
+     * Hashes key with {@link #hashFunction}. Searches hash their key once, and then reduce the hash code to an index
+     * with {@link #indexOf(int, int)}, and compare it with the hash codes cached by the records they probe.
+     * @param key The key to hash.
+     * @return The hash code of key.
+     */
+    protected int hashOf(String key) {
+        return hashFunction.hash(key);
+    }
+
+    /**
+     * Reduces a hash code to the address it hashes to in an array of the given length, with {@link #hashFunction}.
+     * @param hash The hash code, as returned by {@link #hashOf(String)} or cached by {@link KVPair#getHash()}.
+     * @param length The length of the array.
+     * @return The hashed address.
+     */
+    protected int indexOf(int hash, int length) {
+        return hashFunction.index(hash, length);
+    }
+
+    /**
+     * Replaces the {@link HashFunction} of an empty table. {@link SeededHashFunction} keeps crafted keys from piling
+     * up in the same probe sequence, at the cost of hashing every key in full.
+     * @param hashFunction The new hash function.
+     * @throws IllegalArgumentException if hashFunction is {@code null}.
+     * @throws IllegalStateException if the table holds any record or tombstone.
+     */
+    public void setHashFunction(HashFunction hashFunction) {
+        if(hashFunction == null) {
+            throw new IllegalArgumentException("The hash function is null.");
+        }
+        if(count != 0 || oldTable != null) {
+            throw new IllegalStateException("Can only replace the hash function of an empty table.");
+        }
+        this.hashFunction = hashFunction;
+    }
+
+    /**
+     * Inserts pair into arr with this table's collision resolution strategy. Every openly addressed table already
+     * needs this to rehash into a bigger array; incremental resizing uses it to migrate records. Existing pairs are
+     * moved as they are, so that their cached hash codes are reused and nothing is allocated.
+     * @param arr The array to insert into.
+     * @param pair The record to insert.
+     * @return The number of probes the insertion made.
+     */
+    protected abstract int putHelper(KVPair[] arr, KVPair pair);
+
+    /**
+     * The distance from the hashed address that the given probe attempt looks at. Linear by default; subclasses with
+     * a different probe sequence override this.
+     * @param attempt The zero-based probe attempt.
+     * @return The offset from the hashed address, before wrapping around the array.
+     */
+    protected long probeOffset(int attempt) {
+        return attempt;
+    }
+
+    /**
+     * The cell that the given probe attempt of a key with the given hash code looks at, in an array of the given length.
+     * Adds {@link #probeOffset(int)} to the hashed address by default; subclasses whose probe sequence depends on
+     * the key itself override this instead.
+     * @param hash The hash code of the key, as cached by {@link KVPair#getHash()}.
+     * @param attempt The zero-based probe attempt.
+     * @param length The length of the array.
+     * @return The index of the cell to probe.
+     */
+    protected int probeIndex(int hash, int attempt, int length) {
+        return (int)((indexOf(hash, length) + probeOffset(attempt)) % length);
+    }
+
+    /**
+     * Begins an incremental resize: the current array becomes {@link #oldTable} and {@link #table} becomes a new,
+     * empty array. If a previous resize is still in progress, it is completed first.
+     * @param newLength The capacity of the new array.
+     * @return The number of probes spent completing a previous resize.
+     */
+    protected int startMigration(int newLength) {
+        int probeCount = migrate(Integer.MAX_VALUE);
+        oldTable = table;
+        table = new KVPair[newLength];
+        migrationIndex = 0;
+        return probeCount;
+    }
+
+    /**
+     * Moves up to cells cells of {@link #oldTable} into {@link #table}, and drops {@link #oldTable} once every cell has
+     * been moved. Has no effect if no incremental resize is in progress.
+     * @param cells The maximum number of cells to migrate.
+     * @return The number of probes the migration made.
+     */
+    protected int migrate(int cells) {
+        if(oldTable == null) {
+            return 0;
+        }
+        int probeCount = 0;
+        for(int i = 0; i < cells && migrationIndex < oldTable.length; i++, migrationIndex++) {
+            KVPair pair = oldTable[migrationIndex];
+            probeCount++;
+            if(pair != null && pair != TOMBSTONE) {
+                probeCount += putHelper(table, pair);
+                oldTable[migrationIndex] = TOMBSTONE;
+            }
+        }
+        if(migrationIndex == oldTable.length) {
+            oldTable = null;
+        }
+        return probeCount;
+    }
+
+    /**
+     * Searches {@link #oldTable} for key with this table's probe sequence. Must only be called while an incremental
+     * resize is in progress.
+     * @param key The key to search for.
+     * @param probes A one-cell array to which we add the number of probes made.
+     * @return The index of key in {@link #oldTable}, or -1 if it is not there.
+     */
+    protected int findInOldTable(String key, int[] probes) {
+        int index = findSlot(oldTable, key, hashOf(key), probes);
+        return (index == -1 || oldTable[index] == null) ? -1 : index;
+    }
+
+    /**
+     * Walks the probe sequence of key in arr up to the first cell that is either empty or holds key, skipping over
+     * {@link #TOMBSTONE}s. On a miss, this is the cell where {@link #putHelper(KVPair[], KVPair)} would insert key
+     * for tables which do not reorder their records, so an insertion can search and insert in a single pass.
+     * @param arr The array to search.
+     * @param key The key to search for.
+     * @param hash The hash code of key, as returned by {@link #hashOf(String)}.
+     * @param probes A one-cell array to which we add the number of probes made.
+     * @return The index of key, or of the first empty cell of its probe sequence, or -1 if the probe sequence
+     * has neither.
+     */
+    protected int findSlot(KVPair[] arr, String key, int hash, int[] probes) {
+        for(int attempt = 0; attempt < arr.length; attempt++) {
+            int index = probeIndex(hash, attempt, arr.length);
+            probes[0]++;
+            if(arr[index] == null || (arr[index] != TOMBSTONE && arr[index].hasKey(key, hash))) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Completes an insertion that missed in {@link #table}: while an incremental resize is in progress, the key might
+     * not have been migrated yet, in which case its value is updated where it is.
+     * @param key The key to update.
+     * @param value The new value.
+     * @param probes A one-cell array to which we add the number of probes made.
+     * @return The value that key was mapped to in {@link #oldTable}, or {@code null} if it isn't there.
+     */
+    protected String updateInOldTable(String key, String value, int[] probes) {
+        if(oldTable == null) {
+            return null;
+        }
+        int index = findInOldTable(key, probes);
+        if(index == -1) {
+            return null;
+        }
+        String previous = oldTable[index].getValue();
+        oldTable[index].setValue(value);
+        return previous;
+    }
+
+    /**
+     * Inserts &lt;key, value&gt; into {@link #table}, or updates the value of key in place if it's already stored, in
+     * a single pass over its probe sequence. Only suitable for tables which insert a new key at the first empty cell
+     * of its probe sequence, and only once the table has room for another record.
+     * @param key The record's key.
+     * @param value The record's value.
+     * @param probeCount The probes already spent by the insertion, e.g. on resizing.
+     * @return The {@link Probes} with value, the total number of probes, and the value that key was mapped to before,
+     * or {@code null} if key is new.
+     */
+    protected Probes upsert(String key, String value, int probeCount) {
+        int[] probes = {probeCount};
+        int hash = hashOf(key);
+        int index = findSlot(table, key, hash, probes);
+        String previous;
+        if(table[index] != null) {
+            previous = table[index].getValue();
+            table[index].setValue(value);
+        } else {
+            previous = updateInOldTable(key, value, probes);
+            if(previous == null) {
+                table[index] = new KVPair(key, value, hash);
+                count++;
+            }
+        }
+        return new Probes(value, probes[0], previous);
+    }
+
+    /**
+     * Completes a search that missed in {@link #table}: while an incremental resize is in progress, the key might
+     * not have been migrated yet.
+     * @param key The key to search for.
+     * @param probeCount The probes already spent searching {@link #table}.
+     * @return The {@link Probes} with the value of key in {@link #oldTable}, or {@code null}, and the total number of probes.
+     */
+    protected Probes getFromOldTable(String key, int probeCount) {
+        if(oldTable == null) {
+            return new Probes(null, probeCount);
+        }
+        int[] probes = {probeCount};
+        int index = findInOldTable(key, probes);
+        return new Probes(index == -1 ? null : oldTable[index].getValue(), probes[0]);
+    }
+
+    /**
+     * Completes a deletion that missed in {@link #table}: while an incremental resize is in progress, the key might
+     * not have been migrated yet. It is replaced by {@link #TOMBSTONE} in {@link #oldTable}, whatever the deletion type,
+     * since that array is going away anyway.
+     * @param key The key to delete.
+     * @param probeCount The probes already spent searching {@link #table}.
+     * @return The {@link Probes} with the deleted value, or {@code null}, and the total number of probes.
+     */
+    protected Probes removeFromOldTable(String key, int probeCount) {
+        if(oldTable == null) {
+            return new Probes(null, probeCount);
+        }
+        int[] probes = {probeCount};
+        int index = findInOldTable(key, probes);
+        if(index == -1) {
+            return new Probes(null, probes[0]);
+        }
+        String value = oldTable[index].getValue();
+        oldTable[index] = TOMBSTONE;
+        count--;
+        return new Probes(value, probes[0]);
+    }
+
+    /**
+     * Counts the values of the records, if {@link #setValueIndexed(boolean)} turned it on; {@code null} otherwise.
+     */
+    protected ValueIndex valueIndex;
+
+    /**
+     * Records a completed insertion or update in {@link #valueIndex}, if there is one.
+     * @param inserted The {@link Probes} that the insertion returns.
+     * @return inserted, so that insertions can return through this method.
+     */
+    protected Probes indexPut(Probes inserted) {
+        if(valueIndex != null) {
+            valueIndex.replace(inserted.getPreviousValue(), inserted.getValue());
+        }
+        return inserted;
+    }
+
+    /**
+     * Records a completed deletion in {@link #valueIndex}, if there is one.
+     * @param removed The {@link Probes} that the deletion returns, with a {@code null} value if nothing was removed.
+     * @return removed, so that deletions can return through this method.
+     */
+    protected Probes indexRemove(Probes removed) {
+        if(valueIndex != null) {
+            valueIndex.remove(removed.getValue());
+        }
+        return removed;
+    }
+
+    @Override
+    public void setValueIndexed(boolean indexed) {
+        if(!indexed) {
+            valueIndex = null;
+        } else if(valueIndex == null) {
+            valueIndex = new ValueIndex();
+            for(KVPair[] arr : new KVPair[][]{table, oldTable}) {
+                for(int i = 0; arr != null && i < arr.length; i++) {
+                    if(arr[i] != null && arr[i] != TOMBSTONE) {
+                        valueIndex.add(arr[i].getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+        for(KVPair[] arr : new KVPair[][]{table, oldTable}) {
+            for(int i = 0; arr != null && i < arr.length; i++) {
+                if(arr[i] != null && arr[i] != TOMBSTONE) {
+                    action.accept(arr[i].getKey(), arr[i].getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Searches {@link #table}, and then {@link #oldTable} if an incremental resize is in progress, without counting
+     * probes or creating any {@link Probes}. Walks the same probe sequence as {@link #findSlot(KVPair[], String, int, int[])},
+     * which finds the key in every openly addressed table, though tables which stop their searches early may probe fewer cells.
+     * @param key The key to search for.
+     * @param hash The hash code of key, as returned by {@link #hashOf(String)}.
+     * @return The value of key, or {@code null} if it is not stored.
+     */
+    protected String lookup(String key, int hash) {
+        String value = lookup(table, key, hash);
+        return (value != null || oldTable == null) ? value : lookup(oldTable, key, hash);
+    }
+
+    private String lookup(KVPair[] arr, String key, int hash) {
+        for(int attempt = 0; attempt < arr.length; attempt++) {
+            KVPair pair = arr[probeIndex(hash, attempt, arr.length)];
+            if(pair == null) {
+                return null;
+            }
+            if(pair != TOMBSTONE && pair.hasKey(key, hash)) {
+                return pair.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String valueOf(String key) {
+        return (key == null) ? null : lookup(key, hashOf(key));
+    }
+
+    /**
+     * Hashes every key first, and then searches them in the order of their hashed addresses, so that the searches
+     * sweep {@link #table} from one end to the other instead of jumping around it.
+     */
+    @Override
+    public void getAll(String[] keys, String[] values) {
+        if(keys == null || values == null || values.length < keys.length) {
+            throw new IllegalArgumentException("Provided arrays are null or too short.");
+        }
+        int[] hashes = new int[keys.length];
+        long[] order = new long[keys.length]; // The hashed address in the high half, the position of the key in the low.
+        int n = 0;
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] == null) {
+                values[i] = null;
+            } else {
+                hashes[i] = hashOf(keys[i]);
+                order[n++] = ((long)indexOf(hashes[i], table.length) << 32) | i;
+            }
+        }
+        Arrays.sort(order, 0, n);
+        for(int j = 0; j < n; j++) {
+            int i = (int)order[j];
+            values[i] = lookup(keys[i], hashes[i]);
+        }
+    }
+
+    /**
+     * Scans {@link #oldTable} for value, if an incremental resize is in progress.
+     * @param value The value to search for.
+     * @return {@code true} if, and only if, some record not yet migrated has value as its value.
+     */
+    protected boolean oldTableContainsValue(String value) {
+        if(oldTable == null) {
+            return false;
+        }
+        for(KVPair pair: oldTable) {
+            if(pair != null && pair != TOMBSTONE && pair.getValue().equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The number of times {@link #compact()} has run.
+     */
+    protected int compactions;
+
+    /**
+     * The number of {@link #TOMBSTONE}s that the last run of {@link #compact()} cleared.
+     */
+    protected int lastCompactionPurged;
+
+    /**
+     * The number of probes that the last run of {@link #compact()} made.
+     */
+    protected int lastCompactionProbes;
+
+    /**
+     * The share of occupied cells that have to be {@link #TOMBSTONE}s for an insertion that has run out of room to
+     * {@link #compact()} the table at its current capacity instead of enlarging it, or 0 (zero) if it always enlarges.
+     */
+    protected double compactionThreshold;
+
+    /**
+     * Decides whether an insertion that has run out of room should {@link #compact()} the table at its current
+     * capacity instead of enlarging it.
+     * @param tombstones The number of {@link #TOMBSTONE}s in {@link #table} that {@link #count} includes.
+     * @return {@code true} if, and only if, the table should be compacted.
+     * @see #setCompactionThreshold(double)
+     */
+    protected boolean shouldCompact(int tombstones) {
+        return compactionThreshold > 0 && tombstones > 0 && tombstones >= compactionThreshold * count;
+    }
+
+    /**
+     * Rehashes {@link #table} in place, at the same capacity, dropping every {@link #TOMBSTONE}. This shortens the
+     * probe sequences that went through them without allocating a bigger array. Callers are responsible for
+     * adjusting {@link #count} and their own tombstone counters.
+     * @return The number of probes the compaction made.
+     */
+    protected int compact() {
+        int purged = 0;
+        for(KVPair pair: table) {
+            if(pair == TOMBSTONE) {
+                purged++;
+            }
+        }
+        int probeCount = rehash(table.length);
+        compactions++;
+        lastCompactionPurged = purged;
+        lastCompactionProbes = probeCount;
+        return probeCount;
+    }
+
+    /**
+     * Moves every record of {@link #table} into a new array of the given length in one go, dropping every
+     * {@link #TOMBSTONE}. Callers are responsible for adjusting {@link #count} and their own tombstone counters.
+     * @param length The capacity of the new array.
+     * @return The number of probes the rehash made.
+     */
+    protected int rehash(int length) {
+        KVPair[] resized = new KVPair[length];
+        int probeCount = 0;
+        for(KVPair pair: table) {
+            probeCount++; //for deleting from the old table
+            if(pair != null && pair != TOMBSTONE) {
+                probeCount += putHelper(resized, pair);
+            }
+        }
+        table = resized;
+        return probeCount;
+    }
+
+    /**
+     * The number of occupied cells at which an insertion into an array of the given length enlarges it first. Has to
+     * agree with the check that {@link #put(String, String)} makes, which is at half the length by default.
+     * @param length The length of the array.
+     * @return The number of occupied cells that triggers an enlargement.
+     */
+    protected int maxOccupied(int length) {
+        return length / 2 + 1;
+    }
+
+    /**
+     * Enlarges the table in one go, straight to the first capacity of {@link #primeGenerator} that holds records
+     * records without another enlargement, dropping every {@link #TOMBSTONE}. Has no effect if the table is already
+     * big enough. Callers are responsible for adjusting {@link #count} and their own tombstone counters when this
+     * returns {@code true}.
+     * @param records The number of records that the table has to hold.
+     * @return {@code true} if, and only if, the table was enlarged.
+     * @see HashTable#reserve(int)
+     */
+    protected boolean enlargeFor(int records) {
+        if(records <= maxOccupied(table.length)) {
+            return false;
+        }
+        int length = table.length;
+        while(records > maxOccupied(length)) {
+            length = primeGenerator.getNextPrime();
+        }
+        migrate(Integer.MAX_VALUE);
+        rehash(length);
+        return true;
+    }
+
+    /**
+     * A deletion shrinks the table once fewer than 1 in SHRINK_RATIO of its cells hold records.
+     */
+    protected static final int SHRINK_RATIO = 8;
+
+    /**
+     * Decides whether a deletion should {@link #shrink()} the table: that's the case once fewer than 1 in
+     * {@link #SHRINK_RATIO} of its cells hold records, unless it's already at its starting capacity. A table that is
+     * still migrating from its previous shrink finishes that migration first, so a long run of deletions keeps
+     * shrinking it. Shrinking roughly halves the capacity, which leaves the table at most a quarter full;
+     * enlarging leaves it at least a quarter full. Neither can therefore trigger the other right away.
+     * @param records The number of records in the table, without tombstones: shrinking drops them all, so a purge
+     *                that only leaves tombstones behind still gives the memory back.
+     * @return {@code true} if, and only if, the table should shrink.
+     */
+    protected boolean isSparse(int records) {
+        return table.length > PrimeGenerator.FIRST_PRIME && (long)SHRINK_RATIO * records < table.length;
+    }
+
+    /**
+     * Shrinks the table to the previous capacity of {@link #primeGenerator}, dropping every {@link #TOMBSTONE}. An
+     * incrementally resizing table migrates its records over the next operations instead. Callers are responsible for
+     * adjusting {@link #count} and their own tombstone counters, which {@link #dropTombstones()} does.
+     * @return The number of probes the shrink made.
+     */
+    protected int shrink() {
+        int newLength = primeGenerator.getPreviousPrime();
+        return incremental ? startMigration(newLength) : rehash(newLength);
+    }
+
+    /**
+     * Removes key with this table's deletion strategy and then, if the table has become {@link #isSparse(int) sparse},
+     * {@link #shrink()}s it.
+     * @param key The key to remove.
+     * @return The {@link Probes} of the deletion, including those of the shrink, if any.
+     */
+    @Override
+    public Probes remove(String key) {
+        Probes removed = indexRemove(delete(key));
+        int records = softFlag ? count - getTombstoneCount() : count; // Only soft tombstones are part of count.
+        if(removed.getValue() != null && isSparse(records)) {
+            int probeCount = shrink();
+            dropTombstones();
+            return new Probes(removed.getValue(), removed.getProbes() + probeCount);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes key with this table's deletion strategy, without ever shrinking the table.
+     * @param key The key to remove.
+     * @return The {@link Probes} of the deletion, with a {@code null} value if key was not in the table.
+     */
+    protected abstract Probes delete(String key);
+
+    /**
+     * Resets the tombstone counters of the table once a resizing has dropped every {@link #TOMBSTONE}, taking the
+     * soft-deleted records out of {@link #count}.
+     */
+    protected abstract void dropTombstones();
+
+    /**
+     * Lets soft-deleting tables reclaim their tombstones at the same capacity. By default, tombstones count towards the
+     * load of the table like records do, so delete / insert churn keeps enlarging it even if the number of records
+     * stays the same. Once a threshold is set, an insertion that finds the table out of room compacts it instead
+     * whenever at least that share of its occupied cells are tombstones. With a threshold of 0.5, compacting
+     * leaves the table at most a quarter full, so a quarter of its capacity worth of insertions has to happen before
+     * the next compaction, which keeps the cost of compacting amortized constant. Lower thresholds compact more often
+     * for fewer tombstones each time.
+     * @param threshold The share of tombstones among the occupied cells, more than 0 (zero) and at most 1; or 0 (zero),
+     *                  the default, to always enlarge instead.
+     * @throws IllegalArgumentException if threshold is not in [0, 1].
+     */
+    public void setCompactionThreshold(double threshold) {
+        if(!(threshold >= 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Provided: threshold=" + threshold);
+        }
+        compactionThreshold = threshold;
+    }
+
+    /**
+     * Returns the number of {@link #TOMBSTONE}s in the table, i.e. cells that deleted records still occupy.
+     * @return The number of tombstones.
+     */
+    public abstract int getTombstoneCount();
+
+    /**
+     * Returns the number of times that the table has been compacted at its current capacity to clear its tombstones.
+     * @return The number of compactions so far.
+     */
+    public int getCompactionCount() {
+        return compactions;
+    }
+
+    /**
+     * Returns the number of tombstones that the last compaction cleared.
+     * @return The number of tombstones cleared, or 0 (zero) if the table has never been compacted.
+     */
+    public int getLastCompactionPurged() {
+        return lastCompactionPurged;
+    }
+
+    /**
+     * Returns the number of probes that the last compaction made.
+     * @return The number of probes, or 0 (zero) if the table has never been compacted.
+     */
+    public int getLastCompactionProbes() {
+        return lastCompactionProbes;
+    }
 }
@@ -35,12 +35,26 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
      * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
      *               we want soft deletion, {@code false} otherwise.
      */
-    public OrderedLinearProbingHashTable(boolean soft){
+    public OrderedLinearProbingHashTable(boolean soft) {
+    	this(soft, false);
+    }
+
+    /**
+     * Constructor with soft deletion and incremental resizing options. Initializes the internal storage with a size equal
+     * to the starting value of  {@link PrimeGenerator}.
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *               we want soft deletion, {@code false} otherwise.
+     * @param incremental A boolean indicator of whether we want to resize incrementally or not. {@code true} if and only if
+     *               we want resizes to migrate a few cells per insertion or deletion, {@code false} if we want them to rehash
+     *               the entire table at once.
+     */
+    public OrderedLinearProbingHashTable(boolean soft, boolean incremental) {
     	primeGenerator = new PrimeGenerator();
         table = new KVPair[primeGenerator.getCurrPrime()];
-        softFlag = soft;     
-        count = 0;
+        softFlag = soft;
+        this.incremental = incremental;
         tombCount = 0;
+        count = 0;
     }
 
 
@@ -70,38 +84,62 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     	if(key == null || value == null) {
     		throw new IllegalArgumentException("Either key or the value is null.");
     	}
-    	int probeCount = 0;
-    	if(this.count >= table.length/2 + 1) {//resize when we have 4 elements for table of size 7
+    	int probeCount = migrate(MIGRATION_STEP);
+    	if(this.count >= table.length/2 + 1 && incremental) {
+    		probeCount += startMigration(primeGenerator.getNextPrime());
+    		count -= tombCount; // Tombstones of the old table are never migrated.
+    		this.tombCount = 0;
+    	} else if(this.count >= table.length/2 + 1) {//resize when we have 4 elements for table of size 7
 			
     		KVPair[] bigger = new KVPair[primeGenerator.getNextPrime()];
     		for(KVPair pair: table) {
     			probeCount++; //for deleting from the old table
     			if(pair != null && pair != TOMBSTONE) {
-    				probeCount += putHelper(bigger, pair.getKey(), pair.getValue());
+    				probeCount += putHelper(bigger, pair);
     				//for reinserting into the new table
     			}
     		}
     		count -= tombCount;
+    		this.tombCount = 0;
     		table = bigger; //point reference of table to bigger table
   		}
-    	probeCount += putHelper(table, key, value);
-    	this.count++;
-    	return new Probes(value, probeCount);
+    	return indexPut(upsert(key, value, probeCount));
     	 	
     }
-    private int putHelper(KVPair[] arr, String key, String value) {
+    /* Insertions reorder the cluster they walk through, so a new key is inserted in a second pass, after the search. */
+    @Override
+    protected Probes upsert(String key, String value, int probeCount) {
+    	int[] probes = {probeCount};
+    	int hash = hashOf(key);
+    	int index = findSlot(table, key, hash, probes);
+    	String previous;
+    	if(table[index] != null) {
+    		previous = table[index].getValue();
+    		table[index].setValue(value);
+    	} else {
+    		previous = updateInOldTable(key, value, probes);
+    		if(previous == null) {
+    			probes[0] += putHelper(table, new KVPair(key, value, hash));
+    			this.count++;
+    		}
+    	}
+    	return new Probes(value, probes[0], previous);
+    }
+
+    @Override
+    protected int putHelper(KVPair[] arr, KVPair pair) {
     	
-    	int index = (key.hashCode() & 0x7fffffff) % arr.length, probeCount = 1;
+    	int index = indexOf(pair.getHash(), arr.length), probeCount = 1;
     	//if the index we are inserting is empty
     	if(arr[index] == null) {
-    		arr[index] = new KVPair(key, value);
+    		arr[index] = pair;
     	} else {
     		
-    		KVPair toInsert = new KVPair(key, value);
+    		KVPair toInsert = pair;
     		
     		while(arr[index] != null) {
     			
-    			if(arr[index].getKey().compareTo(key) > 0) {
+    			if(arr[index].getKey().compareTo(pair.getKey()) > 0) {
         			KVPair temp = arr[index];
         			arr[index] = toInsert;
         			toInsert = temp;
@@ -128,10 +166,10 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {
-    		int index = hash(key), probeCount = 1;
+    		int hash = hashOf(key), index = indexOf(hash, table.length), probeCount = 1;
     		while(table[index] != null) { //|1| 2| 3| null |4| null |7|
     			
-    			if(table[index].getKey().equals(key)) {
+    			if(table[index].hasKey(key, hash)) {
     				return new Probes(table[index].getValue(), probeCount);
     			}
     			if(index == table.length -1) { //if the index is last index, loop back around
@@ -141,7 +179,7 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     			}
     			probeCount++;
     		}
-    		return new Probes(null, probeCount);
+    		return getFromOldTable(key, probeCount);
     	}
     }
 
@@ -155,16 +193,16 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
      * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
      */
     @Override
-    public Probes remove(String key) {
+    protected Probes delete(String key) {
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {
-    		int index = hash(key), probeCount = 1;
+    		int hash = hashOf(key), index = indexOf(hash, table.length), probeCount = 1 + migrate(MIGRATION_STEP);
     		if(softFlag) { // soft deletion
     			while(table[index] != null) { //|1| 2| 3| null |4| null |7|
     				
     				KVPair retVal = table[index];
-        			if(table[index].getKey().equals(key)) {
+        			if(table[index].hasKey(key, hash)) {
         				
         				table[index] = TOMBSTONE;
         				this.tombCount++; 
@@ -181,7 +219,7 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     		} else { // hard deletion
     			while(table[index] != null) { 
         			
-        			if(table[index].getKey().equals(key)) {
+        			if(table[index].hasKey(key, hash)) {
         				KVPair retVal = table[index];
         				table[index++] = null; //deleting
         				if(index >= table.length) {
@@ -192,9 +230,9 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
         					
     						KVPair temp = table[index];
     						table[index] = null;
-    						probeCount += putHelper(table, temp.getKey(), temp.getValue());
+    						probeCount += putHelper(table, temp);
     						probeCount++; //count for going back to while loop to check next index
-    						index++;
+    						index = (index + 1) % table.length;
         				}
         				count--;
         				return new Probes(retVal.getValue(), probeCount);
@@ -207,7 +245,7 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
         			probeCount++;
         		}
     		}
-    		return new Probes(null, probeCount);
+    		return removeFromOldTable(key, probeCount);
     	}
     }
 
@@ -217,27 +255,27 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     	if(key == null) {
     		return false;
     	}
-    	if(table[hash(key)] == null) {
-    		return false;
-    	}
-    	int index = hash(key);
+    	int hash = hashOf(key), index = indexOf(hash, table.length);
     	while(table[index] != null) {
-    		if(table[index].getKey().equals(key)) {
+    		if(table[index].hasKey(key, hash)) {
     			return true;
     		}
-    		index++;
+    		index = (index + 1) % table.length;
     	}
-    	return false;
+    	return getFromOldTable(key, 0).getValue() != null;
     }
 
     @Override
     public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
     	for(KVPair pair: table) {
-    		if(pair != null && pair.getValue().equals(value)) {
+    		if(pair != null && pair != TOMBSTONE && pair.getValue().equals(value)) {
 	    		return true;
     		}
     	}
-    	return false;
+    	return oldTableContainsValue(value);
     }
 
     @Override
@@ -250,4 +288,21 @@ public class OrderedLinearProbingHashTable extends OpenAddressingHashTable {
     	return table.length;
     }
 
+    @Override
+    public int getTombstoneCount() {
+        return tombCount;
+    }
+
+    @Override
+    protected void dropTombstones() {
+    	count -= tombCount;
+    	this.tombCount = 0;
+    }
+
+    @Override
+    public void reserve(int records) {
+    	if(enlargeFor(records)) {
+    		dropTombstones();
+    	}
+    }
 }
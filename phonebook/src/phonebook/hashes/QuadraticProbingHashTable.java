@@ -19,6 +19,11 @@ import phonebook.utils.Probes;
  * space in between memory probes allows other keys to be inserted without many collisions. The tradeoff
  * is that, in doing so, {@link QuadraticProbingHashTable} sacrifices <em>cache locality</em>.</p>
  *
+ * <p>The keys that follow a deleted key are spread over the whole table, so hard deletion cannot simply
+ * pull them back like {@link LinearProbingHashTable} does. Instead, it leaves a hidden tombstone behind,
+ * which does not count towards {@link #size()}, and rebuilds the table at the same capacity only once an
+ * eighth of its cells hold such tombstones.</p>
+ *
  * @author Keshab Acharya!
  *
  * @see HashTable
@@ -33,7 +38,15 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
     /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
     /* ********************************************************************/
 
+	private static final int DEAD_CELL_RATIO = 8; // Compact once an eighth of the cells are dead.
+
 	private int tombCount;
+	private int deadCount; // Cells left as TOMBSTONE by hard deletions. Unlike tombCount, these are not part of count.
+
+	@Override
+	protected long probeOffset(int attempt) {
+		return attempt + (long)attempt * attempt;
+	}
     /* ******************************************/
     /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
     /* **************************************** */
@@ -44,12 +57,25 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
      *               we want soft deletion, {@code false} otherwise.
      */
     public QuadraticProbingHashTable(boolean soft) {
+    	this(soft, false);
+    }
+
+    /**
+     * Constructor with soft deletion and incremental resizing options. Initializes the internal storage with a size equal
+     * to the starting value of  {@link PrimeGenerator}.
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *               we want soft deletion, {@code false} otherwise.
+     * @param incremental A boolean indicator of whether we want to resize incrementally or not. {@code true} if and only if
+     *               we want resizes to migrate a few cells per insertion or deletion, {@code false} if we want them to rehash
+     *               the entire table at once.
+     */
+    public QuadraticProbingHashTable(boolean soft, boolean incremental) {
     	primeGenerator = new PrimeGenerator();
         table = new KVPair[primeGenerator.getCurrPrime()];
-        softFlag = soft;  
+        softFlag = soft;
+        this.incremental = incremental;
         tombCount = 0;
         count = 0;
-        
     }
 
     @Override
@@ -58,43 +84,54 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
     	if(key == null || value == null) {
     		throw new IllegalArgumentException("Either key or the value is null.");
     	}
-    	int probeCount = 0;
-    	if(this.count >= table.length/2 + 1) {//resize when we have 4 elements for table of size 7
+    	int probeCount = migrate(MIGRATION_STEP);
+    	int occupied = this.count + deadCount;
+    	if(occupied >= table.length/2 + 1 && shouldCompact(tombCount)) { // Reclaim the tombstones instead of growing.
+    		probeCount += compact();
+    		count -= tombCount;
+    		this.tombCount = 0;
+    	} else if(occupied >= table.length/2 + 1 && incremental) {
+    		probeCount += startMigration(primeGenerator.getNextPrime());
+    		count -= tombCount; // Tombstones of the old table are never migrated.
+    		this.tombCount = 0;
+    		this.deadCount = 0;
+    	} else if(occupied >= table.length/2 + 1) {//resize when we have 4 elements for table of size 7
 			
     		KVPair[] bigger = new KVPair[primeGenerator.getNextPrime()];
     		for(KVPair pair: table) {
     			probeCount++; //for deleting from the old table
     			
     			if(pair != null && pair != TOMBSTONE) {
-    				probeCount += putHelper(bigger, pair.getKey(), pair.getValue());
+    				probeCount += putHelper(bigger, pair);
     				//for reinserting into the new table
     			}
     		}
     		table = bigger; //point reference of table to bigger table
     		count -= tombCount;
+    		this.tombCount = 0;
+    		deadCount = 0;
   		}
-    	probeCount += putHelper(table, key, value);
-    	this.count++;
-    	return new Probes(value, probeCount);
+    	return indexPut(upsert(key, value, probeCount));
     	
     }
     
-    private int putHelper(KVPair[] arr, String key, String value) {
+    @Override
+    protected int putHelper(KVPair[] arr, KVPair pair) {
     	
-    	int index = (key.hashCode() & 0x7fffffff) % arr.length, probeCount = 1;
+    	int index = indexOf(pair.getHash(), arr.length), probeCount = 1;
     	int hashed = index;
     	//if the index we are inserting is empty
     	if(arr[index] == null) {
-    		arr[index] = new KVPair(key, value);
+    		arr[index] = pair;
     	} else {   		
     		
     		while(arr[index] != null) {
     			
     			probeCount++;
-    			index = (hashed + (probeCount-1) + ((probeCount-1)*(probeCount-1))) % arr.length;
+    			index = (int)((hashed + probeOffset(probeCount-1)) % arr.length);
     			
     		}
-    		arr[index] = new KVPair(key, value);
+    		arr[index] = pair;
     		
     	}
     	return probeCount;
@@ -107,69 +144,67 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {
-    		int index = hash(key), probeCount = 1;
-    		while(table[index] != null) { //|1| 2| 3| null |4| null |7|
+    		int hash = hashOf(key), index = indexOf(hash, table.length), probeCount = 1;
+    		int hashed = index;
+    		// The probe sequence repeats after table.length probes, and may only go through occupied cells.
+    		while(table[index] != null && probeCount <= table.length) { //|1| 2| 3| null |4| null |7|
     			
-    			if(table[index].getKey().equals(key)) {
+    			if(table[index] != TOMBSTONE && table[index].hasKey(key, hash)) {
     				return new Probes(table[index].getValue(), probeCount);
     			}
     			probeCount++;
-    			index = (hash(key) + (probeCount-1) + ((probeCount-1)*(probeCount-1))) % table.length;	
+    			index = (int)((hashed + probeOffset(probeCount-1)) % table.length);	
     		}
-    		return new Probes(null, probeCount);
+    		return getFromOldTable(key, probeCount);
     	}
     }
 
     @Override
-    public Probes remove(String key) {
+    protected Probes delete(String key) {
     	
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {	
-    		int index = hash(key), probeCount = 1;
+    		int migrationProbes = migrate(MIGRATION_STEP); // Kept apart, since probeCount drives the probe sequence.
+    		int hash = hashOf(key), index = indexOf(hash, table.length), probeCount = 1;
     		int hashed = index; //changed
     		
     		if(!softFlag) { // hard deletion
-    			while(table[index] != null) { //|("hi", 2)| ("hello, 12) | ("bye", 13)| null |("no", 3)| null |("yes", 22)|
+    			while(table[index] != null && probeCount <= table.length) { //|("hi", 2)| ("hello, 12) | ("bye", 13)| null |("no", 3)| null |("yes", 22)|
         			
-        			if(table[index].getKey().equals(key)) {
+        			if(table[index] != TOMBSTONE && table[index].hasKey(key, hash)) {
         				
+        				// Leave a TOMBSTONE, so that the probe sequences through this cell stay intact, and only
+        				// rebuild once enough of them pile up. This keeps deletion amortized constant time.
         				KVPair temp = table[index];
-        				table[index] = null; //deleting
-        				index = 0;
-        				
-        				//Reinsertion of all the elements
-        				KVPair[] copy = new KVPair[primeGenerator.getCurrPrime()];
-        	    		for(KVPair pair: table) {
-        	    			probeCount++; //for deleting from the old table
-        	    			if(pair != null && pair != TOMBSTONE) {
-        	    				probeCount += putHelper(copy, pair.getKey(), pair.getValue());
-        	    				//for reinserting into the new table
-        	    			}
-        	    		}
-        	    		count--;
-        	    		table = copy; //point reference of table to bigger table
-        				return new Probes(temp.getValue(), probeCount);
+        				table[index] = TOMBSTONE;
+        				count--;
+        				deadCount++;
+        				if(deadCount * DEAD_CELL_RATIO >= table.length) {
+        					probeCount += compact();
+        					deadCount = 0;
+        				}
+        				return new Probes(temp.getValue(), probeCount + migrationProbes);
         			}
         			probeCount++;
-        			index = (hashed + (probeCount-1) + ((probeCount-1)*(probeCount-1))) % table.length;				
+        			index = (int)((hashed + probeOffset(probeCount-1)) % table.length);				
         		}
     			
     			
     		} else { // soft deletion
-    			while(table[index] != null) { //|1| 2| 3| null |4| null |7|
+    			while(table[index] != null && probeCount <= table.length) { //|1| 2| 3| null |4| null |7|
     				
     				KVPair temp = table[index];
-        			if(table[index].getKey().equals(key)) {
+        			if(temp != TOMBSTONE && temp.hasKey(key, hash)) {
         				table[index] = TOMBSTONE;
         				this.tombCount++;
-        				return new Probes(temp.getValue(), probeCount);
+        				return new Probes(temp.getValue(), probeCount + migrationProbes);
         			}
         			probeCount++;
-        			index = (hashed + (probeCount-1) + ((probeCount-1)*(probeCount-1))) % table.length;			
+        			index = (int)((hashed + probeOffset(probeCount-1)) % table.length);			
         		}
     		}
-    		return new Probes(null, probeCount);
+    		return removeFromOldTable(key, probeCount + migrationProbes);
     	}
     }
 
@@ -180,28 +215,29 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
     	if(key == null) {
     		return false;
     	}
-    	if(table[hash(key)] == null) {
-    		return false;
-    	}
-    	int index = hash(key), probeCount = 1;
-    	while(table[index] != null) {
-    		if(table[index].getKey().equals(key)) {
+    	int hash = hashOf(key), index = indexOf(hash, table.length), probeCount = 1;
+    	int hashed = index;
+    	while(table[index] != null && probeCount <= table.length) {
+    		if(table[index] != TOMBSTONE && table[index].hasKey(key, hash)) {
     			return true;
     		}
     		probeCount++;
-    		index = (hash(key) + (probeCount-1) + ((probeCount-1)*(probeCount-1))) % table.length;
+    		index = (int)((hashed + probeOffset(probeCount-1)) % table.length);
     	}
-    	return false;
+    	return getFromOldTable(key, 0).getValue() != null;
     }
 
     @Override
     public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
     	for(KVPair pair: table) {
-    		if(pair != null && pair.getValue().equals(value)) {
+    		if(pair != null && pair != TOMBSTONE && pair.getValue().equals(value)) {
 	    		return true;
     		}
     	}
-    	return false;
+    	return oldTableContainsValue(value);
     }
     @Override
     public int size(){
@@ -213,4 +249,22 @@ public class QuadraticProbingHashTable extends OpenAddressingHashTable {
        return table.length;
     }
 
-}
\ No newline at end of file
+    @Override
+    public int getTombstoneCount() {
+        return tombCount + deadCount;
+    }
+
+    @Override
+    protected void dropTombstones() {
+    	count -= tombCount;
+    	this.tombCount = 0;
+    	deadCount = 0;
+    }
+
+    @Override
+    public void reserve(int records) {
+    	if(enlargeFor(records)) {
+    		dropTombstones();
+    	}
+    }
+}
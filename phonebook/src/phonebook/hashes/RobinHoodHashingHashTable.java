@@ -0,0 +1,269 @@
+package phonebook.hashes;
+
+import phonebook.utils.KVPair;
+import phonebook.utils.PrimeGenerator;
+import phonebook.utils.Probes;
+
+/**
+ * <p>{@link RobinHoodHashingHashTable} is an Openly Addressed {@link HashTable} which uses <b>Robin Hood
+ * Hashing</b> as its collision resolution strategy. Like {@link LinearProbingHashTable}, every key collision is
+ * resolved by moving one address over, but while a key is being inserted it <b>takes the cell</b> of any key that
+ * is closer to its own hashed address than the inserted key currently is, and the displaced key continues the
+ * insertion in its place. &quot; Rich &quot; keys (close to home) give up their cells to &quot; poor &quot; keys
+ * (far from home).</p>
+ *
+ * <p>This keeps the variance of probe lengths low, and it makes searches destined to fail, fail <b>faster</b>: once
+ * a search meets a key that sits closer to its home than the searched key would, the searched key cannot be further
+ * down the chain. Tombstones left by soft deletion never stop a search and are never taken by an insertion, so they
+ * do not break this invariant. Hard deletion shifts the rest of the chain one cell back instead of reinserting it.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashTable
+ * @see LinearProbingHashTable
+ * @see OrderedLinearProbingHashTable
+ * @see QuadraticProbingHashTable
+ * @see CollisionResolver
+ */
+public class RobinHoodHashingHashTable extends OpenAddressingHashTable {
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+	private int tombCount;
+
+	// How far the key stored at index has been pushed from the cell that it hashes to in arr.
+	private int distance(KVPair[] arr, int index) {
+		int home = indexOf(arr[index].getHash(), arr.length);
+		return (index - home + arr.length) % arr.length;
+	}
+
+	private int next(KVPair[] arr, int index) {
+		return (index == arr.length - 1) ? 0 : index + 1; //if the index is last index, loop back around
+	}
+
+    /* ******************************************/
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+    /* **************************************** */
+
+    /**
+     * Constructor with soft deletion option. Initializes the internal storage with a size equal to the starting value of  {@link PrimeGenerator}.
+     *
+     * @param soft A boolean indicator of whether we want to use soft deletion or not. {@code true} if and only if
+     *             we want soft deletion, {@code false} otherwise.
+     */
+    public RobinHoodHashingHashTable(boolean soft) {
+    	primeGenerator = new PrimeGenerator();
+        table = new KVPair[primeGenerator.getCurrPrime()];
+        softFlag = soft;
+        count = 0;
+        tombCount = 0;
+    }
+
+    /**
+     * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+     * keys and values, and we <b>will</b> test if you are throwing a {@link IllegalArgumentException} from your code
+     * if this method is given {@code null} arguments! It is important that we establish that no {@code null} entries
+     * can exist in our database because the semantics of {@link #get(String)} and {@link #remove(String)} are that they
+     * return {@code null} if, and only if, their key parameter is {@code null}. This method is expected to run in <em>amortized
+     * constant time</em>.
+     * <p>
+     * Instances of {@link RobinHoodHashingHashTable} resize exactly like {@link LinearProbingHashTable}, when the
+     * capacity exceeds 50&#37;
+     *
+     * @param key   The record's key.
+     * @param value The record's value.
+     * @return The {@link phonebook.utils.Probes} with the value added and the number of probes it makes.
+     * @throws IllegalArgumentException if either argument is {@code null}.
+     */
+    @Override
+    public Probes put(String key, String value) {
+
+    	if(key == null || value == null) {
+    		throw new IllegalArgumentException("Either key or the value is null.");
+    	}
+    	int probeCount = 0;
+    	if(this.count >= table.length/2 + 1) {//resize when we have 4 elements for table of size 7
+
+    		KVPair[] bigger = new KVPair[primeGenerator.getNextPrime()];
+    		for(KVPair pair: table) {
+    			probeCount++; //for deleting from the old table
+    			if(pair != null && pair != TOMBSTONE) {
+    				probeCount += putHelper(bigger, pair);
+    				//for reinserting into the new table
+    			}
+    		}
+    		count -= tombCount;
+    		this.tombCount = 0;
+    		table = bigger; //point reference of table to bigger table
+  		}
+    	return indexPut(upsert(key, value, probeCount));
+    }
+
+    @Override
+    protected int putHelper(KVPair[] arr, KVPair toInsert) {
+    	return insertFrom(arr, toInsert, indexOf(toInsert.getHash(), arr.length), 0);
+    }
+
+    /* Continues the insertion of toInsert at index, dist cells away from its home. Returns the number of probes. */
+    private int insertFrom(KVPair[] arr, KVPair toInsert, int index, int dist) {
+
+    	int probeCount = 1;
+    	while(arr[index] != null) {
+    		if(arr[index] != TOMBSTONE) {
+    			int residentDist = distance(arr, index);
+    			if(residentDist < dist) { // The resident is richer; it gives up its cell.
+    				KVPair temp = arr[index];
+    				arr[index] = toInsert;
+    				toInsert = temp;
+    				dist = residentDist;
+    			}
+    		}
+    		index = next(arr, index);
+    		dist++;
+    		probeCount++;
+    	}
+    	arr[index] = toInsert;
+    	return probeCount;
+    }
+
+    /* Searches for key on the same walk as the insertion, since key can only be stored before the first cell whose
+     * record is closer to home than key would be. From that cell on, the insertion of a new key proceeds as usual. */
+    @Override
+    protected Probes upsert(String key, String value, int probeCount) {
+    	int hash = hashOf(key), index = indexOf(hash, table.length), dist = 0;
+    	while(table[index] != null) {
+    		if(table[index] != TOMBSTONE) {
+    			if(table[index].hasKey(key, hash)) {
+    				String previous = table[index].getValue();
+    				table[index].setValue(value);
+    				return new Probes(value, probeCount + dist + 1, previous);
+    			}
+    			if(distance(table, index) < dist) {
+    				break;
+    			}
+    		}
+    		index = next(table, index);
+    		dist++;
+    	}
+    	probeCount += dist + insertFrom(table, new KVPair(key, value, hash), index, dist);
+    	this.count++;
+    	return new Probes(value, probeCount, null);
+    }
+
+    /* Returns the cell of key in table, or -1 if it's not there. probes[0] accumulates the cells we looked at. */
+    private int find(String key, int[] probes) {
+    	int hash = hashOf(key), index = indexOf(hash, table.length), dist = 0;
+    	probes[0] = 1;
+    	while(table[index] != null) {
+    		if(table[index] != TOMBSTONE) {
+    			if(table[index].hasKey(key, hash)) {
+    				return index;
+    			}
+    			if(distance(table, index) < dist) { // key would have taken this cell, so it isn't further down.
+    				return -1;
+    			}
+    		}
+    		index = next(table, index);
+    		dist++;
+    		probes[0]++;
+    	}
+    	return -1;
+    }
+
+    @Override
+    public Probes get(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	int index = find(key, probes);
+    	return new Probes(index == -1 ? null : table[index].getValue(), probes[0]);
+    }
+
+    /**
+     * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. If key does not exist in the database
+     * or if key = {@code null}, this method returns {@code null}. This method is expected to run in <em>amortized constant time</em>.
+     *
+     * @param key The key to search for.
+     * @return The {@link phonebook.utils.Probes} with associated value and the number of probe used. If the key is {@code null}, return value {@code null}
+     * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+     */
+    @Override
+    protected Probes delete(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	int index = find(key, probes);
+    	if(index == -1) {
+    		return new Probes(null, probes[0]);
+    	}
+    	KVPair retVal = table[index];
+    	int probeCount = probes[0];
+    	if(softFlag) { // soft deletion
+    		table[index] = TOMBSTONE;
+    		this.tombCount++;
+    	} else { // hard deletion: shift the chain back until a key that is already home, or an empty cell
+    		int nextIndex = next(table, index);
+    		probeCount++; //to check the next element
+    		while(table[nextIndex] != null && distance(table, nextIndex) > 0) {
+    			table[index] = table[nextIndex];
+    			index = nextIndex;
+    			nextIndex = next(table, nextIndex);
+    			probeCount++;
+    		}
+    		table[index] = null;
+    		count--;
+    	}
+    	return new Probes(retVal.getValue(), probeCount);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+    	return key != null && find(key, new int[1]) != -1;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
+    	for(KVPair pair: table) {
+    		if(pair != null && pair != TOMBSTONE && pair.getValue().equals(value)) {
+	    		return true;
+    		}
+    	}
+    	return false;
+    }
+
+    @Override
+    public int size() {
+        return count - tombCount;
+    }
+
+    @Override
+    public int capacity() {
+        return table.length;
+    }
+
+    @Override
+    public int getTombstoneCount() {
+        return tombCount;
+    }
+
+    @Override
+    protected void dropTombstones() {
+    	count -= tombCount;
+    	this.tombCount = 0;
+    }
+
+    @Override
+    public void reserve(int records) {
+    	if(enlargeFor(records)) {
+    		dropTombstones();
+    	}
+    }
+}
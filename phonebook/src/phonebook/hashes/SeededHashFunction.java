@@ -0,0 +1,81 @@
+package phonebook.hashes;
+
+import java.security.SecureRandom;
+
+/**
+ * <p>{@link SeededHashFunction} is a {@link HashFunction} that is hard to flood. It hashes the characters of a key,
+ * four at a time, with a 64-bit multiply-and-fold mixer whose state is keyed by a secret <b>seed</b>. Keys that
+ * collide under one seed do not collide under another, so as long as the seed stays secret, no one can craft many
+ * keys that share a cell. It is not a cryptographic hash function; it only aims to make collisions depend on the seed.
+ * The default constructor draws the seed from a {@link SecureRandom}.</p>
+ *
+ * <p>Indices are computed with Lemire's multiply-shift range reduction: the 32-bit hash code, read as a fraction of
+ * 2^32, is multiplied by the length, and the integer part of the product is the index. This spreads the hash codes
+ * as evenly as a modulo would, but with a multiplication and a shift instead of a slow integer division. It uses
+ * the high bits of the hash code, which the mixer makes as good as its low bits.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashFunction
+ */
+public class SeededHashFunction implements HashFunction {
+
+	// Odd constants with well-spread bits, from wyhash.
+	private static final long P0 = 0xa0761d6478bd642fL;
+	private static final long P1 = 0xe7037ed1a0b428dbL;
+
+	private final long blockSecret;
+	private final long stateSecret;
+
+	// SplitMix64, to derive independent secrets from a single seed.
+	private static long splitMix(long x) {
+		x += 0x9e3779b97f4a7c15L;
+		x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+		x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+		return x ^ (x >>> 31);
+	}
+
+	// Multiplies a and b into 128 bits and folds the halves together, so every bit of each input reaches the result.
+	private static long mum(long a, long b) {
+		return (a * b) ^ Math.multiplyHigh(a, b);
+	}
+
+	/**
+	 * Creates a {@link SeededHashFunction} with a seed from a {@link SecureRandom}.
+	 */
+	public SeededHashFunction() {
+		this(new SecureRandom().nextLong());
+	}
+
+	/**
+	 * Creates a {@link SeededHashFunction} with the given seed. The same seed always gives the same hash codes, which
+	 * is useful for tests and reproducible runs, but a seed that others can learn no longer protects against floods.
+	 * @param seed The seed.
+	 */
+	public SeededHashFunction(long seed) {
+		blockSecret = splitMix(seed);
+		stateSecret = splitMix(blockSecret);
+	}
+
+	@Override
+	public int hash(String key) {
+		int length = key.length(), i = 0;
+		long state = stateSecret ^ length;
+		for(; i + 4 <= length; i += 4) {
+			long block = key.charAt(i) | (long)key.charAt(i + 1) << 16 | (long)key.charAt(i + 2) << 32
+					| (long)key.charAt(i + 3) << 48;
+			state = mum(block ^ blockSecret, state ^ P0);
+		}
+		long tail = 0;
+		for(int shift = 0; i < length; i++, shift += 16) {
+			tail |= (long)key.charAt(i) << shift;
+		}
+		state = mum(tail ^ blockSecret ^ P1, state ^ P0);
+		return (int)(mum(state ^ P1, stateSecret ^ P0) >>> 32);
+	}
+
+	@Override
+	public int index(int hash, int length) {
+		return (int)(((hash & 0xffffffffL) * length) >>> 32);
+	}
+}
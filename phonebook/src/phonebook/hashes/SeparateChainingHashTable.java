@@ -1,9 +1,10 @@
 package phonebook.hashes;
 
-import java.util.Iterator;
+import java.util.function.BiConsumer;
 import phonebook.exceptions.UnimplementedMethodException;
 import phonebook.utils.KVPair;
 import phonebook.utils.KVPairList;
+import phonebook.utils.KVPairTree;
 import phonebook.utils.PrimeGenerator;
 import phonebook.utils.Probes;
 
@@ -15,6 +16,16 @@ import phonebook.utils.Probes;
  * Open Addressing methods, like those implemented in {@link LinearProbingHashTable} and {@link QuadraticProbingHashTable}
  * are more desirable in practice, since they use the original space of the table for the collision chains themselves.</p>
  *
+ * <p>A chain that grows past {@link #TREEIFY_THRESHOLD} records, e.g. because many keys share a
+ * {@link String#hashCode()}, is turned into a {@link KVPairTree}, which keeps searches and deletions in that bucket
+ * logarithmic. It turns back into a list once it shrinks to {@link #UNTREEIFY_THRESHOLD} records; the gap between
+ * the two thresholds keeps a bucket from switching back and forth on every insertion and deletion.</p>
+ *
+ * <p>The table also resizes itself: it enlarges once its load factor, the number of records per bucket, goes above
+ * a maximum, and shrinks once it falls below a minimum, but never below its starting capacity. The minimum has to be
+ * less than half the maximum, so that the load factor right after a resize is never past the threshold that would
+ * resize it straight back.</p>
+ *
  * @author Keshab Acharya!
  * @see HashTable
  * @see SeparateChainingHashTable
@@ -32,22 +43,140 @@ public class SeparateChainingHashTable implements HashTable{
     private int count;
     private PrimeGenerator primeGenerator;
 
-    // We mask the top bit of the default hashCode() to filter away negative values.
-    // Have to copy over the implementation from OpenAddressingHashTable; no biggie.
-    private int hash(String key){
-        return (key.hashCode() & 0x7fffffff) % table.length;
+    // Reduces the hash of a key under hashFunction to the index of its bucket.
+    private int indexOf(int hash){
+        return hashFunction.index(hash, table.length);
+    }
+
+    // Picks the buckets. The records in the buckets cache the hash of their key under it, which also orders the trees.
+    private HashFunction hashFunction = HashFunction.STRING_HASH_CODE;
+
+    /**
+     * The number of records past which a chain is turned into a {@link KVPairTree}.
+     */
+    public static final int TREEIFY_THRESHOLD = 8;
+
+    /**
+     * The number of records at which a {@link KVPairTree} is turned back into a chain.
+     */
+    public static final int UNTREEIFY_THRESHOLD = 6;
+
+    /**
+     * The maximum load factor of a {@link SeparateChainingHashTable} built with the default constructor.
+     */
+    public static final double DEFAULT_MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * The minimum load factor of a {@link SeparateChainingHashTable} built with the default constructor.
+     */
+    public static final double DEFAULT_MIN_LOAD_FACTOR = 0.25;
+
+    private KVPairTree[] trees; // The buckets that are trees. For every index, table or trees is null.
+    private ValueIndex valueIndex;
+    private double maxLoadFactor, minLoadFactor;
+    private int minCapacity;
+
+    private void treeify(int index) {
+    	KVPairTree tree = new KVPairTree();
+    	for(KVPair pair : table[index]) {
+    		tree.add(pair);
+    	}
+    	trees[index] = tree;
+    	table[index] = null;
+    }
+
+    private void untreeify(int index) {
+    	KVPairList list = new KVPairList();
+    	for(KVPair pair : trees[index]) {
+    		list.addBack(pair);
+    	}
+    	table[index] = list;
+    	trees[index] = null;
+    }
+
+    private void shrinkIfSparse() {
+    	if(count < minLoadFactor * table.length && table.length > minCapacity) {
+    		shrink();
+    	}
+    }
+
+    /* Moves every record into new buckets of the given length, reducing the hash cached in every record instead of
+     * hashing its key again. */
+    private void rehash(int length) {
+    	KVPairList[] oldTable = table;
+    	KVPairTree[] oldTrees = trees;
+    	table = new KVPairList[length];
+    	trees = new KVPairTree[length];
+    	for(int i = 0; i < oldTable.length; i++) {
+    		Iterable<KVPair> bucket = (oldTable[i] != null) ? oldTable[i] : oldTrees[i];
+    		if(bucket != null) {
+    			for(KVPair pair : bucket) {
+    				int keyPlace = hashFunction.index(pair.getHash(), length);
+    				if(trees[keyPlace] != null) {
+    					trees[keyPlace].add(pair);
+    				} else {
+    					if(table[keyPlace] == null) {
+    						table[keyPlace] = new KVPairList();
+    					}
+    					table[keyPlace].addBack(pair);
+    					if(table[keyPlace].size() > TREEIFY_THRESHOLD) {
+    						treeify(keyPlace);
+    					}
+    				}
+    			}
+    		}
+    	}
     }
 
     /* **************************************** */
     /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS:  */
     /* **************************************** */
     /**
-     *  Default constructor. Initializes the internal storage with a size equal to the default of {@link PrimeGenerator}.
+     *  Default constructor. Initializes the internal storage with a size equal to the default of {@link PrimeGenerator},
+     *  and resizes between {@link #DEFAULT_MIN_LOAD_FACTOR} and {@link #DEFAULT_MAX_LOAD_FACTOR}.
      */
     public SeparateChainingHashTable(){
+    	this(DEFAULT_MAX_LOAD_FACTOR, DEFAULT_MIN_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructor with load factor thresholds. Initializes the internal storage with a size equal to the default of
+     * {@link PrimeGenerator}.
+     * @param maxLoadFactor The number of records per bucket above which the table enlarges.
+     * @param minLoadFactor The number of records per bucket below which the table shrinks. 0 (zero) means that
+     *                      the table never shrinks by itself.
+     * @throws IllegalArgumentException if maxLoadFactor is not positive, or if minLoadFactor is negative or not
+     * less than half of maxLoadFactor.
+     */
+    public SeparateChainingHashTable(double maxLoadFactor, double minLoadFactor){
+    	if(!(maxLoadFactor > 0) || !(minLoadFactor >= 0) || minLoadFactor >= maxLoadFactor / 2) {
+    		throw new IllegalArgumentException("Provided: maxLoadFactor=" + maxLoadFactor + " and minLoadFactor=" + minLoadFactor);
+    	}
     	primeGenerator = new PrimeGenerator();
         table = new KVPairList[primeGenerator.getCurrPrime()];
+        trees = new KVPairTree[table.length];
         count = 0;
+        this.maxLoadFactor = maxLoadFactor;
+        this.minLoadFactor = minLoadFactor;
+        minCapacity = table.length;
+    }
+
+    /**
+     * Replaces the {@link HashFunction} that picks the bucket of every key, which has to happen while the table is
+     * empty. With {@link SeededHashFunction}, crafted keys with equal {@link String#hashCode()}s no longer end up in the
+     * same bucket.
+     * @param hashFunction The new hash function.
+     * @throws IllegalArgumentException if hashFunction is {@code null}.
+     * @throws IllegalStateException if the table holds any record.
+     */
+    public void setHashFunction(HashFunction hashFunction) {
+    	if(hashFunction == null) {
+    		throw new IllegalArgumentException("The hash function is null.");
+    	}
+    	if(count != 0) {
+    		throw new IllegalStateException("Can only replace the hash function of an empty table.");
+    	}
+    	this.hashFunction = hashFunction;
     }
 
     @Override
@@ -56,13 +185,29 @@ public class SeparateChainingHashTable implements HashTable{
     	if(key == null || value == null) {
     		throw new IllegalArgumentException("Either key or the value is null.");
     	}
-    	int keyPlace = this.hash(key);
-    	if(table[keyPlace] == null) {
-    		table[keyPlace] = new KVPairList();
+    	int hash = hashFunction.hash(key), keyPlace = indexOf(hash);
+    	String previous;
+    	if(trees[keyPlace] != null) {
+    		previous = trees[keyPlace].upsert(key, value, hash).getPreviousValue();
+    	} else {
+    		if(table[keyPlace] == null) {
+    			table[keyPlace] = new KVPairList();
+    		}
+    		previous = table[keyPlace].upsert(key, value, hash).getPreviousValue();
+    		if(table[keyPlace].size() > TREEIFY_THRESHOLD) {
+    			treeify(keyPlace);
+    		}
+    	}
+    	if(previous == null) {
+    		count++;
+    		if(count > maxLoadFactor * table.length) {
+    			enlarge();
+    		}
     	}
-    	table[keyPlace].addBack(key, value);
-    	count++;
-    	return new Probes(value, 1);
+    	if(valueIndex != null) {
+    		valueIndex.replace(previous, value);
+    	}
+    	return new Probes(value, 1, previous);
     	
     	
     }
@@ -72,26 +217,60 @@ public class SeparateChainingHashTable implements HashTable{
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {
-    		if(table[hash(key)] == null) {
+    		int hash = hashFunction.hash(key), keyPlace = indexOf(hash);
+    		if(trees[keyPlace] != null) {
+    			return trees[keyPlace].getValue(key, hash);
+    		} else if(table[keyPlace] == null) {
     			return new Probes(null, 1);
     		} else {
-    			return table[hash(key)].getValue(key);
+    			return table[keyPlace].getValue(key, hash);
     		}
     	}  
     }
 
+    @Override
+    public String valueOf(String key) {
+    	if(key == null) {
+    		return null;
+    	}
+    	int hash = hashFunction.hash(key), keyPlace = indexOf(hash);
+    	if(trees[keyPlace] != null) {
+    		return trees[keyPlace].valueOf(key, hash);
+    	}
+    	return (table[keyPlace] == null) ? null : table[keyPlace].valueOf(key, hash);
+    }
+
     @Override
     public Probes remove(String key) {
     	
     	if(key == null) {
     		return new Probes(null, 0);
     	} else {
-    		if(table[hash(key)] == null) {
+    		int hash = hashFunction.hash(key), keyPlace = indexOf(hash);
+    		if(trees[keyPlace] != null) {
+    			Probes pr = trees[keyPlace].removeByKey(key, hash);
+    			if(pr.getValue() != null) {
+    				count--;
+    				if(valueIndex != null) {
+    					valueIndex.remove(pr.getValue());
+    				}
+    				if(trees[keyPlace].size() <= UNTREEIFY_THRESHOLD) {
+    					untreeify(keyPlace);
+    				}
+    				shrinkIfSparse();
+    			}
+    			return pr;
+    		}
+    		if(table[keyPlace] == null) {
     			return new Probes(null, 1);
     		}
-    		Probes pr = table[hash(key)].removeByKey(key);
+    		Probes pr = table[keyPlace].removeByKey(key, hash);
     		if(pr.getValue() != null) {
     			count--;
+    			if(valueIndex != null) {
+    				valueIndex.remove(pr.getValue());
+    			}
+    			shrinkIfSparse();
     		}
     		return pr;
     	}
@@ -104,22 +283,56 @@ public class SeparateChainingHashTable implements HashTable{
     	if(key == null) {
     		return false;
     	}
-    	if(table[hash(key)] == null) {
-    		return false;
-    	}
-        return table[hash(key)].containsKey(key);
+    	return valueOf(key) != null;
     }
 
     @Override
     public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
         for(KVPairList l: table) {
         	if(l != null && l.containsValue(value)){
         		return true;
         	}
         }
+        for(KVPairTree t: trees) {
+        	if(t != null && t.containsValue(value)){
+        		return true;
+        	}
+        }
         return false;
     }
 
+    @Override
+    public void setValueIndexed(boolean indexed) {
+    	if(!indexed) {
+    		valueIndex = null;
+    	} else if(valueIndex == null) {
+    		valueIndex = new ValueIndex();
+    		for(int i = 0; i < table.length; i++) {
+    			Iterable<KVPair> bucket = (trees[i] != null) ? trees[i] : table[i];
+    			if(bucket != null) {
+    				for(KVPair pair : bucket) {
+    					valueIndex.add(pair.getValue());
+    				}
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+    	for(int i = 0; i < table.length; i++) {
+    		Iterable<KVPair> bucket = (trees[i] != null) ? trees[i] : table[i];
+    		if(bucket != null) {
+    			for(KVPair pair : bucket) {
+    				action.accept(pair.getKey(), pair.getValue());
+    			}
+    		}
+    	}
+    }
+
     @Override
     public int size() {
         return count;
@@ -137,23 +350,7 @@ public class SeparateChainingHashTable implements HashTable{
      * @see PrimeGenerator#getNextPrime()
      */
     public void enlarge() {
-    	
-    	KVPairList[] bigger = new KVPairList[primeGenerator.getNextPrime()];
-    	for(KVPairList l: table) {
-    		if(l != null) {
-	    		Iterator<KVPair> it = l.iterator();
-	    		while(it.hasNext()) {
-	    			KVPair pair = it.next();
-	    			int keyPlace = (pair.getKey().hashCode() & 0x7fffffff) % bigger.length;
-	    			if(bigger[keyPlace] == null) {
-	    				bigger[keyPlace] = new KVPairList();
-	    			}
-	    			bigger[keyPlace].addBack(pair.getKey(), pair.getValue());
-	    		}
-    		}
-    	}
-    	table = bigger;
-    	
+    	rehash(primeGenerator.getNextPrime());
     }
 
     /**
@@ -164,22 +361,18 @@ public class SeparateChainingHashTable implements HashTable{
      * @see PrimeGenerator#getPreviousPrime()
      */
     public void shrink(){
-    	
-    	KVPairList[] smaller = new KVPairList[primeGenerator.getPreviousPrime()];
-    	for(KVPairList l: table) {
-    		
-    		if(l != null) {
-	    		Iterator<KVPair> it = l.iterator();
-	    		while(it.hasNext()) {
-	    			KVPair pair = it.next();
-	    			int keyPlace = (pair.getKey().hashCode() & 0x7fffffff) % smaller.length;
-	    			if(smaller[keyPlace] == null) {
-	    				smaller[keyPlace] = new KVPairList();
-	    			}
-	    			smaller[keyPlace].addBack(pair.getKey(), pair.getValue());
-	    		}
-    		}
+    	rehash(primeGenerator.getPreviousPrime());
+    }
+
+    @Override
+    public void reserve(int records) {
+    	if(records <= maxLoadFactor * table.length) {
+    		return;
+    	}
+    	int length = table.length;
+    	while(records > maxLoadFactor * length) {
+    		length = primeGenerator.getNextPrime();
     	}
-    	table = smaller;
+    	rehash(length);
     }
 }
@@ -0,0 +1,466 @@
+package phonebook.hashes;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import phonebook.utils.Probes;
+
+/**
+ * <p>{@link SwissHashTable} is an openly addressed {@link HashTable} in the style of Google's &quot; Swiss tables &quot;.
+ * Beside the arrays of keys and values, it keeps a {@code byte[]} array of <b>control bytes</b>, one per cell: a full
+ * cell stores 7 bits of its key's hash code, its <b>fingerprint</b>, while empty and deleted cells store markers with
+ * the top bit set. The cells are split into <b>groups</b> of 8, and a probe reads the 8 control bytes of a group as a
+ * single {@code long}. A few arithmetic and bitwise operations on that word (SIMD within a register) then find every
+ * cell of the group whose fingerprint matches the searched key, and whether the group has an empty cell. Only the
+ * matching cells, 1 in 128 of the others on average, have their cached hash code and then their key {@link String}
+ * compared. The full hash codes are kept in an {@code int[]} array, so that rehashing the table never hashes a key
+ * again.</p>
+ *
+ * <p>Groups are probed in a triangular sequence: 1, 2, 3, ... groups over from the previous one. The capacity is
+ * always a power of two, so this sequence visits every group. A search stops at the first group with an empty cell.
+ * That cuts most failed searches short even when the table is 87.5&#37; full, its maximum load, so the number of
+ * groups probed stays close to the number of cells that {@link LinearProbingHashTable} probes at half its load. It
+ * is the number of groups that the returned {@link Probes} count.</p>
+ *
+ * <p>Deleting from a group that still has an empty cell simply empties the cell, since no probe sequence can have
+ * gone past such a group. Otherwise, the cell is marked as deleted, so that searches keep probing past it. Deleted
+ * cells are taken by new keys, and are cleared whenever the table is rehashed: at double the capacity if it holds
+ * many records, at the same capacity if it mostly holds deleted cells.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashTable
+ * @see CompactLinearProbingHashTable
+ * @see CollisionResolver
+ */
+public class SwissHashTable implements HashTable {
+
+    /* ********************************************************************/
+    /* ** INSERT ANY PRIVATE METHODS OR FIELDS YOU WANT TO USE HERE: ******/
+    /* ********************************************************************/
+
+	/**
+	 * The number of cells that a probe looks at.
+	 */
+	public static final int GROUP_SIZE = 8;
+
+	/**
+	 * The capacity of a new {@link SwissHashTable}.
+	 */
+	public static final int INITIAL_CAPACITY = 2 * GROUP_SIZE;
+
+	/**
+	 * The largest capacity of a {@link SwissHashTable}, the largest power of two that an array can have.
+	 */
+	public static final int MAX_CAPACITY = 1 << 30;
+
+	private static final byte EMPTY = (byte)0x80;
+	private static final byte DELETED = (byte)0xFE;
+
+	private static final long LSBS = 0x0101010101010101L;
+	private static final long MSBS = 0x8080808080808080L;
+
+	// Reads 8 control bytes as a long, the first one in the lowest byte.
+	private static final VarHandle GROUP = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private byte[] control;
+	private int[] hashes; // The hashOf() of every full cell.
+	private String[] keys;
+	private String[] values;
+	private int count;
+	private int deleted;
+	private ValueIndex valueIndex;
+	private HashFunction hashFunction = HashFunction.STRING_HASH_CODE;
+
+	/* The hash code of key, followed by the Murmur3 finalizer. Capacities are powers of two, so every bit of the hash
+	 * code has to reach the low bits, which String.hashCode() alone does not do. */
+	private int hashOf(String key) {
+		int hash = hashFunction.hash(key);
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+
+	private static byte fingerprint(int hash) {
+		return (byte)(hash & 0x7f);
+	}
+
+	// The high bit of every byte of word which equals b. Borrows may also flag a byte right above a match, so every
+	// match still has its key compared.
+	private static long matchByte(long word, byte b) {
+		long x = word ^ (LSBS * (b & 0xff));
+		return (x - LSBS) & ~x & MSBS;
+	}
+
+	// The high bit of every EMPTY byte: the only control byte with its top bit set and its second lowest bit clear.
+	private static long matchEmpty(long word) {
+		return word & (~word << 6) & MSBS;
+	}
+
+	// The high bit of every EMPTY or DELETED byte: the only control bytes with their top bit set and lowest bit clear.
+	private static long matchFree(long word) {
+		return word & (~word << 7) & MSBS;
+	}
+
+	// The cell of the lowest byte flagged in a match.
+	private static int lowestCell(long match) {
+		return Long.numberOfTrailingZeros(match) >>> 3;
+	}
+
+	private int groups() {
+		return control.length / GROUP_SIZE;
+	}
+
+	private long group(int g) {
+		return (long)GROUP.get(control, g * GROUP_SIZE);
+	}
+
+	// The number of full or deleted cells past which an insertion has to rehash: 7/8 of the capacity.
+	private int maxLoad() {
+		return control.length - control.length / 8;
+	}
+
+	private void allocate(int length) {
+		control = new byte[length];
+		Arrays.fill(control, EMPTY);
+		hashes = new int[length];
+		keys = new String[length];
+		values = new String[length];
+	}
+
+	private void set(int index, byte ctrl, int hash, String key, String value) {
+		control[index] = ctrl;
+		hashes[index] = hash;
+		keys[index] = key;
+		values[index] = value;
+	}
+
+	/* Returns the cell of key or, if it's not there, the bitwise complement (always negative) of the first free cell of
+	 * its probe sequence, which is where it would be inserted. Unless probes is null, the groups we looked at are added
+	 * to probes[0]. */
+	private int find(String key, int hash, int[] probes) {
+		int mask = groups() - 1, g = (hash >>> 7) & mask, insertAt = -1;
+		byte fp = fingerprint(hash);
+		for(int step = 1; ; step++) {
+			long word = group(g);
+			if(probes != null) {
+				probes[0]++;
+			}
+			for(long match = matchByte(word, fp); match != 0; match &= match - 1) {
+				int index = g * GROUP_SIZE + lowestCell(match);
+				if(control[index] == fp && hashes[index] == hash && keys[index].equals(key)) {
+					return index;
+				}
+			}
+			long free = matchFree(word);
+			if(insertAt == -1 && free != 0) {
+				insertAt = g * GROUP_SIZE + lowestCell(free);
+			}
+			if(matchEmpty(word) != 0 || step > mask) { // The key would have been inserted in this group.
+				return ~insertAt;
+			}
+			g = (g + step) & mask;
+		}
+	}
+
+	// Inserts a key that is known not to be in the table. Returns the number of groups probed.
+	private int putHelper(int hash, String key, String value) {
+		int mask = groups() - 1, g = (hash >>> 7) & mask, probeCount = 1;
+		long free;
+		for(int step = 1; (free = matchFree(group(g))) == 0; step++) {
+			g = (g + step) & mask;
+			probeCount++;
+		}
+		int index = g * GROUP_SIZE + lowestCell(free);
+		if(control[index] == DELETED) {
+			deleted--;
+		}
+		set(index, fingerprint(hash), hash, key, value);
+		return probeCount;
+	}
+
+	// Moves every record into new arrays of the given length, dropping deleted cells. The records keep their cached
+	// hash codes. Returns the number of probes.
+	private int rehash(int length) {
+		String[] oldKeys = keys, oldValues = values;
+		byte[] oldControl = control;
+		int[] oldHashes = hashes;
+		allocate(length);
+		deleted = 0;
+		int probeCount = 0;
+		for(int i = 0; i < oldControl.length; i++) {
+			probeCount++; //for deleting from the old table
+			if(oldControl[i] >= 0) { // A full cell: fingerprints never have their top bit set.
+				probeCount += putHelper(oldHashes[i], oldKeys[i], oldValues[i]);
+			}
+		}
+		return probeCount;
+	}
+
+	/* Inserts or updates key, and returns the value it was mapped to before, if any. Unless probes is null, the
+	 * groups probed are added to probes[0]. */
+	private String upsert(String key, String value, int[] probes) {
+		if(key == null || value == null) {
+			throw new IllegalArgumentException("Either key or the value is null.");
+		}
+		int hash = hashOf(key);
+		int index = find(key, hash, probes);
+		if(valueIndex != null) {
+			valueIndex.replace(index >= 0 ? values[index] : null, value);
+		}
+		if(index >= 0) { // An update: no new record.
+			String previous = values[index];
+			values[index] = value;
+			return previous;
+		}
+		if(count + deleted >= maxLoad()) {
+			boolean grow = 2 * count >= maxLoad();
+			if(grow && control.length == MAX_CAPACITY) {
+				throw new IllegalStateException("The table cannot grow past " + MAX_CAPACITY + " cells.");
+			}
+			int probeCount = rehash(grow ? 2 * control.length : control.length);
+			probeCount += putHelper(hash, key, value);
+			if(probes != null) {
+				probes[0] += probeCount;
+			}
+		} else {
+			index = ~index;
+			if(control[index] == DELETED) {
+				deleted--;
+			}
+			set(index, fingerprint(hash), hash, key, value);
+		}
+		count++;
+		return null;
+	}
+
+	/* Removes key, and returns its value, or null if it's not there. Unless probes is null, the groups probed are
+	 * added to probes[0]. */
+	private String delete(String key, int[] probes) {
+		int index = find(key, hashOf(key), probes);
+		if(index < 0) {
+			return null;
+		}
+		String retVal = values[index];
+		if(valueIndex != null) {
+			valueIndex.remove(retVal);
+		}
+		if(matchEmpty(group(index / GROUP_SIZE)) != 0) { // No search has ever probed past this group.
+			set(index, EMPTY, 0, null, null);
+		} else {
+			set(index, DELETED, 0, null, null);
+			deleted++;
+		}
+		count--;
+		return retVal;
+	}
+
+    /* ******************************************/
+    /*  IMPLEMENT THE FOLLOWING PUBLIC METHODS: */
+    /* **************************************** */
+
+    /**
+     * Default constructor. Initializes the internal storage with {@link #INITIAL_CAPACITY} cells.
+     */
+    public SwissHashTable() {
+    	allocate(INITIAL_CAPACITY);
+    	count = 0;
+    	deleted = 0;
+    }
+
+    /**
+     * Replaces the {@link HashFunction} of an empty table. Only its {@link HashFunction#hash(String)} is used: the
+     * table picks groups and fingerprints from the bits of the hash code itself. {@link SeededHashFunction} keeps
+     * crafted keys from filling the same groups.
+     * @param hashFunction The new hash function.
+     * @throws IllegalArgumentException if hashFunction is {@code null}.
+     * @throws IllegalStateException if the table holds any record.
+     */
+    public void setHashFunction(HashFunction hashFunction) {
+    	if(hashFunction == null) {
+    		throw new IllegalArgumentException("The hash function is null.");
+    	}
+    	if(count != 0) {
+    		throw new IllegalStateException("Can only replace the hash function of an empty table.");
+    	}
+    	this.hashFunction = hashFunction;
+    }
+
+    /**
+     * Inserts the pair &lt;key, value&gt; into this. The container should <b>not</b> allow for {@code null}
+     * keys and values, and we <b>will</b> test if you are throwing a {@link IllegalArgumentException} from your code
+     * if this method is given {@code null} arguments! It is important that we establish that no {@code null} entries
+     * can exist in our database because the semantics of {@link #get(String)} and {@link #remove(String)} are that they
+     * return {@code null} if, and only if, their key parameter is {@code null}. This method is expected to run in <em>amortized
+     * constant time</em>.
+     * <p>
+     * Once 7/8 of the cells are full or deleted, inserting a new key rehashes the table: at double the capacity if at
+     * least half of those cells are full, at the same capacity otherwise. Inserting a key that already exists updates
+     * its value in place, in the same pass that searches for it.
+     *
+     * @param key   The record's key.
+     * @param value The record's value.
+     * @return The {@link phonebook.utils.Probes} with the value added, the number of groups it probes, and the value
+     * that key was mapped to before, if any.
+     * @throws IllegalArgumentException if either argument is {@code null}.
+     */
+    @Override
+    public Probes put(String key, String value) {
+
+    	int[] probes = new int[1];
+    	String previous = upsert(key, value, probes);
+    	return new Probes(value, probes[0], previous);
+    }
+
+    @Override
+    public String putValue(String key, String value) {
+    	return upsert(key, value, null);
+    }
+
+    @Override
+    public Probes get(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	int index = find(key, hashOf(key), probes);
+    	return new Probes(index < 0 ? null : values[index], probes[0]);
+    }
+
+    @Override
+    public String valueOf(String key) {
+    	if(key == null) {
+    		return null;
+    	}
+    	int index = find(key, hashOf(key), null);
+    	return index < 0 ? null : values[index];
+    }
+
+    /**
+     * <b>Return</b> and <b>remove</b> the value associated with key in the {@link HashTable}. If key does not exist in the database
+     * or if key = {@code null}, this method returns {@code null}. This method is expected to run in <em>amortized constant time</em>.
+     *
+     * @param key The key to search for.
+     * @return The {@link phonebook.utils.Probes} with associated value and the number of groups probed. If the key is {@code null}, return value {@code null}
+     * and 0 as number of probes; if the key dones't exists in the database, return {@code null} and the number of probes used.
+     */
+    @Override
+    public Probes remove(String key) {
+
+    	if(key == null) {
+    		return new Probes(null, 0);
+    	}
+    	int[] probes = new int[1];
+    	String retVal = delete(key, probes);
+    	return new Probes(retVal, probes[0]);
+    }
+
+    @Override
+    public String removeValue(String key) {
+    	return key == null ? null : delete(key, null);
+    }
+
+    /**
+     * Hashes every key first, and then searches them in the order of their first groups, so that the searches
+     * sweep the control bytes from one end to the other instead of jumping around them.
+     */
+    @Override
+    public void getAll(String[] keys, String[] values) {
+    	if(keys == null || values == null || values.length < keys.length) {
+    		throw new IllegalArgumentException("Provided arrays are null or too short.");
+    	}
+    	int[] hashed = new int[keys.length];
+    	long[] order = new long[keys.length]; // The first group in the high half, the position of the key in the low.
+    	int n = 0, mask = groups() - 1;
+    	for(int i = 0; i < keys.length; i++) {
+    		if(keys[i] == null) {
+    			values[i] = null;
+    		} else {
+    			hashed[i] = hashOf(keys[i]);
+    			order[n++] = ((long)((hashed[i] >>> 7) & mask) << 32) | i;
+    		}
+    	}
+    	Arrays.sort(order, 0, n);
+    	for(int j = 0; j < n; j++) {
+    		int i = (int)order[j];
+    		int index = find(keys[i], hashed[i], null);
+    		values[i] = index < 0 ? null : this.values[index];
+    	}
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+    	return key != null && find(key, hashOf(key), null) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(String value) {
+    	if(valueIndex != null) {
+    		return valueIndex.contains(value);
+    	}
+    	for(int i = 0; i < control.length; i++) {
+    		if(control[i] >= 0 && values[i].equals(value)) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+
+    @Override
+    public void setValueIndexed(boolean indexed) {
+    	if(!indexed) {
+    		valueIndex = null;
+    	} else if(valueIndex == null) {
+    		valueIndex = new ValueIndex();
+    		for(int i = 0; i < control.length; i++) {
+    			if(control[i] >= 0) {
+    				valueIndex.add(values[i]);
+    			}
+    		}
+    	}
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+    	for(int i = 0; i < control.length; i++) {
+    		if(control[i] >= 0) {
+    			action.accept(keys[i], values[i]);
+    		}
+    	}
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int capacity() {
+        return control.length;
+    }
+
+    /**
+     * Makes room for records records in total, so that inserting that many never resizes this table.
+     * @param records The number of records that the table is expected to hold.
+     * @throws IllegalArgumentException if records exceed 7/8 of {@link #MAX_CAPACITY}.
+     */
+    @Override
+    public void reserve(int records) {
+    	if(records > MAX_CAPACITY - MAX_CAPACITY / 8) {
+    		throw new IllegalArgumentException("Cannot make room for " + records + " records in " + MAX_CAPACITY + " cells.");
+    	}
+    	int length = control.length;
+    	while(records > length - length / 8) {
+    		length *= 2;
+    	}
+    	if(length != control.length) {
+    		rehash(length);
+    	}
+    }
+}
@@ -0,0 +1,60 @@
+package phonebook.hashes;
+
+import java.util.HashMap;
+
+/**
+ * <p>{@link ValueIndex} counts how many records of a {@link HashTable} hold each value, so that
+ * {@link HashTable#containsValue(String)} takes expected constant time instead of a scan of the whole table. Several
+ * keys may share a value, which is why values are counted rather than simply stored: a value stays in the index until
+ * its last record is removed or updated.</p>
+ *
+ * <p>Tables keep a {@link ValueIndex} only once {@link HashTable#setValueIndexed(boolean)} turns it on, and update it
+ * on every insertion, update and deletion. Resizes, migrations and compactions move records around without changing
+ * them, so they leave the index alone.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see HashTable#setValueIndexed(boolean)
+ */
+final class ValueIndex {
+
+	private final HashMap<String, Integer> counts = new HashMap<>();
+
+	/**
+	 * Counts a record with the given value.
+	 * @param value The value of the record.
+	 */
+	void add(String value) {
+		counts.merge(value, 1, Integer::sum);
+	}
+
+	/**
+	 * Forgets a record with the given value. Has no effect if value is {@code null}, so that it can be given the result
+	 * of a deletion directly.
+	 * @param value The value of the record, or {@code null} if no record was removed.
+	 */
+	void remove(String value) {
+		if(value != null) {
+			counts.computeIfPresent(value, (v, count) -> count == 1 ? null : count - 1);
+		}
+	}
+
+	/**
+	 * Records an insertion, or an update if previous is not {@code null}.
+	 * @param previous The value that the record held before, or {@code null} if the record is new.
+	 * @param value The value that the record holds now.
+	 */
+	void replace(String previous, String value) {
+		remove(previous);
+		add(value);
+	}
+
+	/**
+	 * Queries the index for a value.
+	 * @param value The value to search for.
+	 * @return {@code true} if, and only if, some record holds value.
+	 */
+	boolean contains(String value) {
+		return counts.containsKey(value);
+	}
+}
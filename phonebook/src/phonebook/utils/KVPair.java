@@ -13,6 +13,7 @@ public class KVPair {
 
     private String key;
     private String value;
+    private int hash; // The key's full hashCode(), so that resizes and probes never have to go through the key.
 
     /**
      * Simple constructor.
@@ -22,6 +23,20 @@ public class KVPair {
     public KVPair(String key, String value){
         this.key = key;
         this.value = value;
+        hash = key.hashCode();
+    }
+
+    /**
+     * Constructor for hash tables that do not hash keys with {@link String#hashCode()}.
+     * @param key The key {@link String} of the entry.
+     * @param value The value {@link String} of the entry.
+     * @param hash The hash code of key under the hash function of the table that stores the entry.
+     * @see #hasKey(String, int)
+     */
+    public KVPair(String key, String value, int hash){
+        this.key = key;
+        this.value = value;
+        this.hash = hash;
     }
 
     /**
@@ -32,6 +47,36 @@ public class KVPair {
         return key;
     }
 
+    /**
+     * Simple accessor.
+     * @return The full 32-bit {@link String#hashCode()} of the key, cached when the key was set, or the hash code
+     * given to the constructor. Hash tables reduce this to an index instead of hashing the key again.
+     */
+    public int getHash() {
+        return hash;
+    }
+
+    /**
+     * Checks whether this entry has the provided key. Entries whose cached hash differs are rejected without
+     * looking at the key's characters.
+     * @param key The key {@link String} to compare against. Must not be {@code null}.
+     * @return {@code true} if, and only if, key equals the key of this entry.
+     */
+    public boolean hasKey(String key) {
+        return hash == key.hashCode() && this.key.equals(key);
+    }
+
+    /**
+     * Checks whether this entry has the provided key, given the key's hash code under the same hash function as the
+     * hash code cached by this entry. Entries whose cached hash differs are rejected without looking at the key.
+     * @param key The key {@link String} to compare against. Must not be {@code null}.
+     * @param hash The hash code of key.
+     * @return {@code true} if, and only if, key equals the key of this entry.
+     */
+    public boolean hasKey(String key, int hash) {
+        return this.hash == hash && this.key.equals(key);
+    }
+
     /**
      * Simple accessor.
      * @return The value associated with the entry.
@@ -46,6 +91,7 @@ public class KVPair {
      */
     public void setKey(String key){
         this.key = key;
+        hash = key.hashCode();
     }
 
     /**
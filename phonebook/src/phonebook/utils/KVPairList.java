@@ -23,7 +23,11 @@ public class KVPairList implements Iterable<KVPair>{
         Node next;
 
         Node(String key, String value, Node next){
-            pair = new KVPair(key, value);
+            this(new KVPair(key, value), next);
+        }
+
+        Node(KVPair pair, Node next){
+            this.pair = pair;
             this.next = next;
         }
 
@@ -60,18 +64,64 @@ public class KVPairList implements Iterable<KVPair>{
      * @param value The &quot;value&quot; {@link String} in the pair.
      */
     public void addBack(String key, String value){
+        addBack(new KVPair(key, value));
+    }
+
+    /**
+     * Appends an existing pair, without copying it. Useful when moving pairs between lists, since the pair keeps
+     * its cached hash code.
+     * @param pair The {@link KVPair} to append.
+     */
+    public void addBack(KVPair pair){
         if(tail == null){
             assert head == null : "Head and tail can only be null together";
 
-            head = tail = new Node(key, value);
+            head = tail = new Node(pair, null);
         } else {
-            tail.next = new Node(key, value);
+            tail.next = new Node(pair, null);
             tail = tail.next;
         }
         count++;
     }
 
 
+    /**
+     * Updates the value of the <b>first</b> pair with key key, or appends the pair &lt; key, value &gt; if
+     * there is no such pair, in a single pass over the list.
+     * @param key The &quot;key&quot; {@link String} in the pair.
+     * @param value The &quot;value&quot; {@link String} in the pair.
+     * @return The probe object. Contains value, the number of nodes visited, and the value that key was
+     *          mapped to before, or {@code null} if the pair was appended.
+     */
+    public Probes upsert(String key, String value){
+        return upsert(key, value, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #upsert(String, String)}, for lists whose pairs cache a hash code other than
+     * {@link String#hashCode()}. An appended pair caches hash.
+     * @param key The &quot;key&quot; {@link String} in the pair.
+     * @param value The &quot;value&quot; {@link String} in the pair.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the list.
+     * @return The probe object, as {@link #upsert(String, String)} returns it.
+     * @see KVPair#hasKey(String, int)
+     */
+    public Probes upsert(String key, String value, int hash){
+        Node current = head;
+        int probeCount = 1;
+        while(current != null){
+            if(current.pair.hasKey(key, hash)){
+                String previous = current.pair.getValue();
+                current.pair.setValue(value);
+                return new Probes(value, probeCount, previous);
+            }
+            current = current.next;
+            probeCount++;
+        }
+        addBack(new KVPair(key, value, hash));
+        return new Probes(value, probeCount, null);
+    }
+
     /**
      * Updates the value of the pair &lt; key, value &gt; based on the provided key. If key does not exist
      * in this, this method has <b>no effect</b>.
@@ -81,7 +131,7 @@ public class KVPairList implements Iterable<KVPair>{
     public void updateValue(String key, String value){
         Node current = head;
         while(current != null){
-            if(current.pair.getKey().equals(key))
+            if(current.pair.hasKey(key))
                 current.pair.setValue(value);
             current = current.next; // Keep updating other possible entries.
         }
@@ -111,13 +161,24 @@ public class KVPairList implements Iterable<KVPair>{
      *          otherwise contain the value associated with the key
      */
     public Probes removeByKey(String key){
+        return removeByKey(key, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #removeByKey(String)}, for lists whose pairs cache a hash code other than
+     * {@link String#hashCode()}.
+     * @param key The &quot; key &quot; {@link String} to match with entries.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the list.
+     * @return The probe object, as {@link #removeByKey(String)} returns it.
+     */
+    public Probes removeByKey(String key, int hash){
         Node current = head;
         Node previous = null;
         int probeCount = 1;
         String flag = null;
 
         while(current != null){
-            if(current.pair.getKey().equals(key)){ // Found it
+            if(current.pair.hasKey(key, hash)){ // Found it
                 flag = current.pair.getValue();
                 if(previous != null) {
                     previous.next = current.next;
@@ -128,7 +189,7 @@ public class KVPairList implements Iterable<KVPair>{
                 }
                 if(current == tail){
                     assert tail.next == null : "If we find the element at the end of the list, the next element should be null.";
-                    tail = tail.next;
+                    tail = previous; // null if current was also the head.
                 }
                 count--;
                 break;
@@ -166,7 +227,7 @@ public class KVPairList implements Iterable<KVPair>{
                 }
                 if(current == tail){
                     assert tail.next == null : "If we find the element at the end of the list, the next element should be null.";
-                    tail = tail.next;
+                    tail = previous; // null if current was also the head.
                 }
                 count--;
                 break;
@@ -189,7 +250,7 @@ public class KVPairList implements Iterable<KVPair>{
         Node current = head;
         Node previous = null;
         while(current != null){
-            if(current.pair.getKey().equals(key) && current.pair.getValue().equals(value)){ // Found it
+            if(current.pair.hasKey(key) && current.pair.getValue().equals(value)){ // Found it
                 if(previous != null)
                     previous.next = current.next;
                 if(current == head) {
@@ -198,7 +259,7 @@ public class KVPairList implements Iterable<KVPair>{
                 }
                 if(current == tail){
                     assert tail.next == null : "If we find the element at the end of the list, the next element should be null.";
-                    tail = tail.next;
+                    tail = previous; // null if current was also the head.
                 }
                 count--;
                 break;
@@ -219,7 +280,7 @@ public class KVPairList implements Iterable<KVPair>{
     public boolean containsKVPair(String key, String value){
         Node current = head;
         while(current != null){
-            if(current.pair.getKey().equals(key) && current.pair.getValue().equals(value))
+            if(current.pair.hasKey(key) && current.pair.getValue().equals(value))
                 return true;
             current = current.next;
         }
@@ -237,7 +298,7 @@ public class KVPairList implements Iterable<KVPair>{
     public boolean containsKey(String key){
         Node current = head;
         while(current != null){
-            if(current.pair.getKey().equals(key))
+            if(current.pair.hasKey(key))
                 return true;
             current = current.next;
         }
@@ -268,10 +329,21 @@ public class KVPairList implements Iterable<KVPair>{
      * @return The probe object containing &quot;value&quot; {@link String} or {@code null} if key could not be found in this.
      */
     public Probes getValue(String key){
+        return getValue(key, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #getValue(String)}, for lists whose pairs cache a hash code other than
+     * {@link String#hashCode()}.
+     * @param key the &quot;key&quot; {@link String} to search for.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the list.
+     * @return The probe object, as {@link #getValue(String)} returns it.
+     */
+    public Probes getValue(String key, int hash){
         Node current = head;
         int probeCount = 1;
         while(current != null) {
-            if (current.pair.getKey().equals(key)){
+            if (current.pair.hasKey(key, hash)){
                 return new Probes(current.pair.getValue(), probeCount);
             }
             current = current.next;
@@ -280,6 +352,30 @@ public class KVPairList implements Iterable<KVPair>{
         return new Probes(null, probeCount);
     }
 
+    /**
+     * The same search as {@link #getValue(String)}, without counting probes or creating {@link Probes}.
+     * @param key the &quot;key&quot; {@link String} to search for.
+     * @return The &quot;value&quot; {@link String} of the first pair with key key, or {@code null} if there is none.
+     */
+    public String valueOf(String key){
+        return valueOf(key, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #valueOf(String)}, for lists whose pairs cache a hash code other than
+     * {@link String#hashCode()}.
+     * @param key the &quot;key&quot; {@link String} to search for.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the list.
+     * @return The &quot;value&quot; {@link String} of the first pair with key key, or {@code null} if there is none.
+     */
+    public String valueOf(String key, int hash){
+        for(Node current = head; current != null; current = current.next) {
+            if (current.pair.hasKey(key, hash))
+                return current.pair.getValue();
+        }
+        return null;
+    }
+
     /**
      * Simple getter for keys based on values.
      * @param value the value {@link String} to search for.
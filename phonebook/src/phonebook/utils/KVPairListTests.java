@@ -180,4 +180,44 @@ public class KVPairListTests {
         assertFalse("A KVPairList with two duplicate nodes and one successful deletion should NOT report that it's empty.", list.isEmpty());
         assertEquals("A KVPairList with two duplicate nodes and one successful deletion should report a size of 1.", 1 , list.size());
     }
+
+    @Test
+    public void testPairInsertionsKeepCachedHash() {
+        KVPair pair = new KVPair("Joseph", "890-567-9002");
+        assertEquals("A KVPair should cache the hash code of its key.", "Joseph".hashCode(), pair.getHash());
+        list.addBack(pair);
+        list.updateKey("Joe", "890-567-9002");
+        assertSame("addBack(KVPair) should not copy the pair.", pair, list.iterator().next());
+        assertEquals("Changing the key of a KVPair should update its cached hash code.", "Joe".hashCode(), pair.getHash());
+        assertTrue("We should find a pair by its new key.", list.containsKey("Joe"));
+        assertFalse("We should not find a pair by its old key.", list.containsKey("Joseph"));
+    }
+
+    @Test
+    public void testRemovingTheTailKeepsTheList() {
+        // All three deletions used to set the tail to null when they removed the last node of a longer list, so the
+        // next addBack() replaced the whole list with its new node.
+        for(int deletion = 0; deletion < 3; deletion++) {
+            list = new KVPairList();
+            list.addBack("Joseph", "890-567-9002");
+            list.addBack("Adam", "707-890-3568");
+            list.addBack("Rayeesha", "403-111-2000");
+            if(deletion == 0)
+                list.removeByKey("Rayeesha");
+            else if(deletion == 1)
+                list.removeByValue("403-111-2000");
+            else
+                list.remove("Rayeesha", "403-111-2000");
+            list.addBack("Karthik", "303-678-900");
+            assertEquals("Removing the tail and then adding a pair should leave three pairs.", 3, list.size());
+            assertTrue(list.containsKey("Joseph"));
+            assertTrue(list.containsKey("Adam"));
+            assertTrue(list.containsKey("Karthik"));
+            int visited = 0;
+            for(KVPair pair : list) {
+                visited++;
+            }
+            assertEquals("Every pair should still be reachable from the head.", 3, visited);
+        }
+    }
 }
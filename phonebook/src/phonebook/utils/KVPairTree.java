@@ -0,0 +1,351 @@
+package phonebook.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>{@link KVPairTree} is an AVL tree storing pairs of {@link String}s, ordered by the hash code of their key first
+ * and by the key itself second. It offers the same searches and deletions by key as {@link KVPairList}, in
+ * <b>logarithmic</b> instead of linear time, no matter how many of its keys share a hash code. Comparing the cached
+ * hash codes first means that most comparisons never touch the key {@link String}s.</p>
+ *
+ * <p>Unlike {@link KVPairList}, {@link KVPairTree} holds <b>at most one</b> pair per key.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see KVPair
+ * @see KVPairList
+ * @see KVPairTreeTests
+ */
+public class KVPairTree implements Iterable<KVPair>{
+
+    private class Node {
+        KVPair pair;
+        Node left, right;
+        int height;
+
+        Node(KVPair pair){
+            this.pair = pair;
+            height = 1;
+        }
+    }
+
+    private Node root;
+    private int count;
+
+    /**
+     * Default constructor. Initializes an empty {@link KVPairTree}.
+     */
+    public KVPairTree(){
+        root = null;
+        count = 0;
+    }
+
+    private static int compare(int hash, String key, KVPair pair){
+        if(hash != pair.getHash())
+            return Integer.compare(hash, pair.getHash());
+        return key.compareTo(pair.getKey());
+    }
+
+    private static int height(Node node){
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node){
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private static Node rotateRight(Node node){
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node){
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static Node balance(Node node){
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if(skew > 1){
+            if(height(node.left.left) < height(node.left.right))
+                node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if(skew < -1){
+            if(height(node.right.right) < height(node.right.left))
+                node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /* Inserts pair below node, or gives the node with its key the new value if replace is false, or the new pair
+     * if it's true. previous[0] receives the value replaced, probes[0] counts the nodes visited. */
+    private Node insert(Node node, KVPair pair, boolean replace, String[] previous, int[] probes){
+        if(node == null){
+            count++;
+            return new Node(pair);
+        }
+        probes[0]++;
+        int cmp = compare(pair.getHash(), pair.getKey(), node.pair);
+        if(cmp < 0){
+            node.left = insert(node.left, pair, replace, previous, probes);
+        } else if(cmp > 0){
+            node.right = insert(node.right, pair, replace, previous, probes);
+        } else {
+            previous[0] = node.pair.getValue();
+            if(replace)
+                node.pair = pair;
+            else
+                node.pair.setValue(pair.getValue());
+            return node;
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node, Node[] min){
+        if(node.left == null){
+            min[0] = node;
+            return node.right;
+        }
+        node.left = removeMin(node.left, min);
+        return balance(node);
+    }
+
+    /* Removes the pair with key below node. removed[0] receives its value, probes[0] counts the nodes visited. */
+    private Node delete(Node node, int hash, String key, String[] removed, int[] probes){
+        if(node == null)
+            return null;
+        probes[0]++;
+        int cmp = compare(hash, key, node.pair);
+        if(cmp < 0){
+            node.left = delete(node.left, hash, key, removed, probes);
+        } else if(cmp > 0){
+            node.right = delete(node.right, hash, key, removed, probes);
+        } else {
+            removed[0] = node.pair.getValue();
+            count--;
+            if(node.left == null)
+                return node.right;
+            if(node.right == null)
+                return node.left;
+            Node[] min = new Node[1];
+            Node right = removeMin(node.right, min);
+            min[0].left = node.left;
+            min[0].right = right;
+            node = min[0];
+        }
+        return balance(node);
+    }
+
+    /**
+     * Adds an existing pair, without copying it, replacing the pair with the same key if there is one. Useful when
+     * moving pairs between buckets, since the pair keeps its cached hash code.
+     * @param pair The {@link KVPair} to add.
+     */
+    public void add(KVPair pair){
+        root = insert(root, pair, true, new String[1], new int[1]);
+    }
+
+    /**
+     * Updates the value of the pair with key key, or adds the pair &lt; key, value &gt; if there is no such pair.
+     * @param key The &quot;key&quot; {@link String} in the pair.
+     * @param value The &quot;value&quot; {@link String} in the pair.
+     * @return The probe object. Contains value, the number of nodes visited, and the value that key was
+     *          mapped to before, or {@code null} if the pair was added.
+     */
+    public Probes upsert(String key, String value){
+        return upsert(key, value, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #upsert(String, String)}, for trees ordered by a hash code other than
+     * {@link String#hashCode()}. An added pair caches hash.
+     * @param key The &quot;key&quot; {@link String} in the pair.
+     * @param value The &quot;value&quot; {@link String} in the pair.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the tree.
+     * @return The probe object, as {@link #upsert(String, String)} returns it.
+     */
+    public Probes upsert(String key, String value, int hash){
+        String[] previous = new String[1];
+        int[] probes = new int[1];
+        root = insert(root, new KVPair(key, value, hash), false, previous, probes);
+        return new Probes(value, Math.max(probes[0], 1), previous[0]);
+    }
+
+    /**
+     * Removes the entry with key key from the tree. If key does not exist in the tree, this method has
+     * <b>no effect</b>.
+     * @param key The &quot; key &quot; {@link String} to match with entries.
+     * @return The probe object. Contain {@code null} if it is an unsuccessful remove,
+     *          otherwise contain the value associated with the key
+     */
+    public Probes removeByKey(String key){
+        return removeByKey(key, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #removeByKey(String)}, for trees ordered by a hash code other than {@link String#hashCode()}.
+     * @param key The &quot; key &quot; {@link String} to match with entries.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the tree.
+     * @return The probe object, as {@link #removeByKey(String)} returns it.
+     */
+    public Probes removeByKey(String key, int hash){
+        String[] removed = new String[1];
+        int[] probes = new int[1];
+        root = delete(root, hash, key, removed, probes);
+        return new Probes(removed[0], Math.max(probes[0], 1));
+    }
+
+    /**
+     * Simple getter for values based on keys.
+     * @param key the &quot;key&quot; {@link String} to search for.
+     * @return The probe object containing &quot;value&quot; {@link String} or {@code null} if key could not be found in this.
+     */
+    public Probes getValue(String key){
+        return getValue(key, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #getValue(String)}, for trees ordered by a hash code other than {@link String#hashCode()}.
+     * @param key the &quot;key&quot; {@link String} to search for.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the tree.
+     * @return The probe object, as {@link #getValue(String)} returns it.
+     */
+    public Probes getValue(String key, int hash){
+        int probeCount = 1;
+        Node current = root;
+        while(current != null){
+            int cmp = compare(hash, key, current.pair);
+            if(cmp == 0)
+                return new Probes(current.pair.getValue(), probeCount);
+            current = (cmp < 0) ? current.left : current.right;
+            if(current != null)
+                probeCount++;
+        }
+        return new Probes(null, probeCount);
+    }
+
+    /**
+     * The same search as {@link #getValue(String)}, without counting probes or creating {@link Probes}.
+     * @param key the &quot;key&quot; {@link String} to search for.
+     * @return The &quot;value&quot; {@link String} of key, or {@code null} if key could not be found in this.
+     */
+    public String valueOf(String key){
+        return valueOf(key, key.hashCode());
+    }
+
+    /**
+     * The same as {@link #valueOf(String)}, for trees ordered by a hash code other than {@link String#hashCode()}.
+     * @param key the &quot;key&quot; {@link String} to search for.
+     * @param hash The hash code of key, under the same hash function as the hash codes of the pairs in the tree.
+     * @return The &quot;value&quot; {@link String} of key, or {@code null} if key could not be found in this.
+     */
+    public String valueOf(String key, int hash){
+        Node current = root;
+        while(current != null){
+            int cmp = compare(hash, key, current.pair);
+            if(cmp == 0)
+                return current.pair.getValue();
+            current = (cmp < 0) ? current.left : current.right;
+        }
+        return null;
+    }
+
+    /**
+     * Queries the tree for the existence of a key.
+     * @param key The &quot;key&quot; {@link String} to search for.
+     * @return {@code true} if, and only if, key is in the tree.
+     */
+    public boolean containsKey(String key){
+        return valueOf(key) != null;
+    }
+
+    /**
+     * Queries the tree for the existence of a value. Linear-time, since the tree is ordered by key.
+     * @param value The &quot;value&quot; {@link String} to search for.
+     * @return {@code true} if, and only if, value is in the tree.
+     */
+    public boolean containsValue(String value){
+        for(KVPair pair : this){
+            if(pair.getValue().equals(value))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of nodes in the {@link KVPairTree}.
+     * @return the number of nodes in the {@link KVPairTree}.
+     */
+    public int size(){
+        return count;
+    }
+
+    /**
+     * Queries the {@link KVPairTree} for emptiness.
+     * @return {@code true} if, and only if, the {@link KVPairTree} has a {@link #size()} of 0 (zero), {@code false} otherwise.
+     */
+    public boolean isEmpty(){
+        return size() == 0;
+    }
+
+    /**
+     * Returns the height of the tree, which is at most about 1.44 log2 of its {@link #size()}.
+     * @return the number of nodes on the longest path from the root to a leaf.
+     */
+    public int height(){
+        return height(root);
+    }
+
+    /**
+     * Iterates over the pairs in (hash code, key) order.
+     * @return An {@link Iterator} over the pairs of this.
+     */
+    public Iterator<KVPair> iterator(){
+        return new Iterator<KVPair>() {
+
+            private final Deque<Node> path = new ArrayDeque<>();
+
+            {
+                descend(root);
+            }
+
+            private void descend(Node node){
+                for(; node != null; node = node.left)
+                    path.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public KVPair next() {
+                if(path.isEmpty())
+                    throw new NoSuchElementException();
+                Node node = path.pop();
+                descend(node.right);
+                return node.pair;
+            }
+
+            @Override
+            public void remove(){
+                throw new UnsupportedOperationException("KVPairTree Iterator does not implement remove().");
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package phonebook.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>{@link KVPairTreeTests} is a small jUnit - based test suite for {@link KVPairTree}.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see KVPairTree
+ */
+public class KVPairTreeTests {
+
+    private KVPairTree tree;
+
+    @Before
+    public void setUp(){
+        tree = new KVPairTree();
+    }
+
+    @After
+    public void tearDown(){
+        tree = null;
+    }
+
+    @Test
+    public void testInsertionsAndUpdates() {
+        assertTrue("A KVPairTree initialized to be empty should report that it's empty.", tree.isEmpty());
+        assertNull(tree.upsert("Joseph", "890-567-9002").getPreviousValue());
+        assertNull(tree.upsert("Adam", "707-890-3568").getPreviousValue());
+        assertEquals("Updating a key should return its old value.", "890-567-9002",
+                tree.upsert("Joseph", "403-111-2000").getPreviousValue());
+        assertEquals("Updating a key should not add a node.", 2, tree.size());
+        assertEquals("403-111-2000", tree.getValue("Joseph").getValue());
+        assertTrue(tree.containsValue("707-890-3568"));
+        assertFalse(tree.containsKey("Rayeesha"));
+    }
+
+    @Test
+    public void testStaysBalancedAgainstTreeMap() {
+        TreeMap<String, String> expected = new TreeMap<>();
+        Random rng = new Random(47);
+        for(int i = 0; i < 5000; i++) {
+            String key = Integer.toString(rng.nextInt(1000));
+            if(rng.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), tree.removeByKey(key).getValue());
+            } else {
+                tree.upsert(key, Integer.toString(i));
+                expected.put(key, Integer.toString(i));
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        for(String key : expected.keySet()) {
+            assertEquals(expected.get(key), tree.getValue(key).getValue());
+        }
+        int n = tree.size();
+        assertTrue("An AVL tree of " + n + " nodes should not have a height of " + tree.height() + ".",
+                tree.height() <= 1.45 * (Math.log(n + 2) / Math.log(2)));
+        int visited = 0;
+        for(Iterator<KVPair> it = tree.iterator(); it.hasNext(); it.next()) {
+            visited++;
+        }
+        assertEquals("The iterator should visit every node once.", n, visited);
+    }
+}
@@ -0,0 +1,244 @@
+package phonebook.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>{@link PrefixTree} is a radix tree storing a set of {@link String}s: every edge is labeled with a run of
+ * characters, and the keys are spelled out by the paths from the root. A node without a key of its own always has at
+ * least two children, so a tree of n keys has fewer than 2n nodes.</p>
+ *
+ * <p>The children of a node are kept in an array sorted by the first character of their labels, which no two of them
+ * share. Listing the first N keys that start with a prefix therefore takes time proportional to the length of the
+ * prefix, for finding its node, plus N, for walking its subtree in order; the rest of the tree is never looked at.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see PrefixTreeTests
+ */
+public class PrefixTree {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static class Node {
+        String label;
+        boolean terminal; // Whether the path to this node spells a key.
+        Node[] children;
+
+        Node(String label, boolean terminal){
+            this.label = label;
+            this.terminal = terminal;
+            children = NO_CHILDREN;
+        }
+    }
+
+    private final Node root;
+    private int count;
+
+    /**
+     * Default constructor. Initializes an empty {@link PrefixTree}.
+     */
+    public PrefixTree(){
+        root = new Node("", false);
+        count = 0;
+    }
+
+    // The index of the child whose label starts with c or, if there's none, the bitwise complement of where it goes.
+    private static int childIndex(Node node, char c){
+        int low = 0, high = node.children.length - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            char first = node.children[mid].label.charAt(0);
+            if(first < c)
+                low = mid + 1;
+            else if(first > c)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return ~low;
+    }
+
+    // The length of the longest common prefix of key, from index from on, and label.
+    private static int commonLength(String key, int from, String label){
+        int length = 0, max = Math.min(key.length() - from, label.length());
+        while(length < max && key.charAt(from + length) == label.charAt(length))
+            length++;
+        return length;
+    }
+
+    private static void insertChild(Node node, int index, Node child){
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        children[index] = child;
+        System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+        node.children = children;
+    }
+
+    private static void removeChild(Node node, int index){
+        Node[] children = new Node[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.children, index + 1, children, index, children.length - index);
+        node.children = children.length == 0 ? NO_CHILDREN : children;
+    }
+
+    // Absorbs the only child of a node that no longer has a key of its own.
+    private static void mergeWithChild(Node node){
+        Node child = node.children[0];
+        node.label += child.label;
+        node.terminal = child.terminal;
+        node.children = child.children;
+    }
+
+    // Adds the keys of the subtree of node to result, in order, until it holds limit keys. path spells node.
+    private static void collect(Node node, StringBuilder path, int limit, List<String> result){
+        if(node.terminal)
+            result.add(path.toString());
+        for(Node child : node.children){
+            if(result.size() == limit)
+                return;
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, limit, result);
+            path.setLength(length);
+        }
+    }
+
+    /**
+     * Adds a key to the tree.
+     * @param key The key to add.
+     * @return {@code true} if key was added, {@code false} if it was already in the tree.
+     * @throws IllegalArgumentException if key is {@code null}.
+     */
+    public boolean add(String key){
+        if(key == null)
+            throw new IllegalArgumentException("Key is null.");
+        Node node = root;
+        int i = 0;
+        while(i < key.length()){
+            int index = childIndex(node, key.charAt(i));
+            if(index < 0){
+                insertChild(node, ~index, new Node(key.substring(i), true));
+                count++;
+                return true;
+            }
+            Node child = node.children[index];
+            int common = commonLength(key, i, child.label);
+            if(common < child.label.length()){ // key leaves the edge halfway, so the edge is split there.
+                Node middle = new Node(child.label.substring(0, common), false);
+                child.label = child.label.substring(common);
+                middle.children = new Node[]{child};
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if(node.terminal)
+            return false;
+        node.terminal = true;
+        count++;
+        return true;
+    }
+
+    /**
+     * Removes a key from the tree.
+     * @param key The key to remove.
+     * @return {@code true} if key was removed, {@code false} if it was not in the tree or is {@code null}.
+     */
+    public boolean remove(String key){
+        if(key == null)
+            return false;
+        Node parent = null, node = root;
+        int i = 0, index = -1;
+        while(i < key.length()){
+            index = childIndex(node, key.charAt(i));
+            if(index < 0 || !key.startsWith(node.children[index].label, i))
+                return false;
+            parent = node;
+            node = node.children[index];
+            i += node.label.length();
+        }
+        if(!node.terminal)
+            return false;
+        node.terminal = false;
+        count--;
+        if(node != root){
+            if(node.children.length == 0){
+                removeChild(parent, index);
+                if(parent != root && !parent.terminal && parent.children.length == 1)
+                    mergeWithChild(parent);
+            } else if(node.children.length == 1){
+                mergeWithChild(node);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queries the tree for a key.
+     * @param key The key to search for.
+     * @return {@code true} if, and only if, key is in the tree.
+     */
+    public boolean contains(String key){
+        if(key == null)
+            return false;
+        Node node = root;
+        int i = 0;
+        while(i < key.length()){
+            int index = childIndex(node, key.charAt(i));
+            if(index < 0 || !key.startsWith(node.children[index].label, i))
+                return false;
+            node = node.children[index];
+            i += node.label.length();
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Lists the first keys that start with a prefix, in the order of {@link String#compareTo(String)}.
+     * @param prefix The prefix of the keys. The empty prefix matches every key.
+     * @param limit The most keys to list.
+     * @return A new {@link List} of at most limit keys, which is empty if no key starts with prefix.
+     * @throws IllegalArgumentException if prefix is {@code null} or limit is negative.
+     */
+    public List<String> startingWith(String prefix, int limit){
+        if(prefix == null || limit < 0)
+            throw new IllegalArgumentException("Provided: prefix=" + prefix + " and limit=" + limit);
+        List<String> result = new ArrayList<>(Math.min(limit, count));
+        Node node = root;
+        StringBuilder path = new StringBuilder();
+        int i = 0;
+        while(i < prefix.length()){
+            int index = childIndex(node, prefix.charAt(i));
+            if(index < 0)
+                return result;
+            Node child = node.children[index];
+            int common = commonLength(prefix, i, child.label);
+            if(common < child.label.length() && i + common < prefix.length()) // prefix leaves the edge halfway.
+                return result;
+            path.append(child.label);
+            node = child;
+            i += child.label.length();
+        }
+        if(limit > 0)
+            collect(node, path, limit, result);
+        return result;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * @return the number of keys in the tree.
+     */
+    public int size(){
+        return count;
+    }
+
+    /**
+     * Queries the tree for emptiness.
+     * @return {@code true} if, and only if, the tree holds no keys.
+     */
+    public boolean isEmpty(){
+        return count == 0;
+    }
+}
@@ -0,0 +1,90 @@
+package phonebook.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>{@link PrefixTreeTests} is a small jUnit - based test suite for {@link PrefixTree}.</p>
+ *
+ * @author Keshab Acharya!
+ *
+ * @see PrefixTree
+ */
+public class PrefixTreeTests {
+
+    private PrefixTree tree;
+
+    @Before
+    public void setUp(){
+        tree = new PrefixTree();
+    }
+
+    @After
+    public void tearDown(){
+        tree = null;
+    }
+
+    @Test
+    public void testPrefixesAndSplits() {
+        assertTrue("A PrefixTree initialized to be empty should report that it's empty.", tree.isEmpty());
+        assertTrue(tree.add("Jason"));
+        assertTrue(tree.add("Jasmine"));
+        assertTrue(tree.add("Jas"));
+        assertTrue(tree.add("Adam"));
+        assertFalse("Adding a key twice should not add it again.", tree.add("Jason"));
+        assertEquals(4, tree.size());
+        assertEquals(Arrays.asList("Jas", "Jasmine", "Jason"), tree.startingWith("Ja", 10));
+        assertEquals("Keys should be listed in order, up to the limit.", Arrays.asList("Jas", "Jasmine"), tree.startingWith("Jas", 2));
+        assertEquals(Arrays.asList("Jasmine"), tree.startingWith("Jasm", 10));
+        assertTrue(tree.startingWith("Jax", 10).isEmpty());
+        assertTrue(tree.startingWith("Jasons", 10).isEmpty());
+        assertTrue(tree.startingWith("", 0).isEmpty());
+        assertFalse("A prefix of keys is not a key itself.", tree.contains("Ja"));
+
+        assertFalse(tree.remove("Ja"));
+        assertTrue(tree.remove("Jas"));
+        assertFalse(tree.contains("Jas"));
+        assertTrue(tree.contains("Jasmine"));
+        assertTrue(tree.remove("Jasmine"));
+        assertEquals(Arrays.asList("Adam", "Jason"), tree.startingWith("", 10));
+    }
+
+    @Test
+    public void testMatchesTreeSet() {
+        TreeSet<String> expected = new TreeSet<>();
+        Random rng = new Random(47);
+        for(int i = 0; i < 5000; i++) {
+            String key = Integer.toString(rng.nextInt(1000), 4); // Few digits make for many shared prefixes.
+            if(rng.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            } else {
+                assertEquals(expected.add(key), tree.add(key));
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        for(int i = 0; i < 100; i++) {
+            String prefix = Integer.toString(i, 4);
+            List<String> matches = new ArrayList<>();
+            for(String key : expected.tailSet(prefix)) {
+                if(!key.startsWith(prefix) || matches.size() == 5)
+                    break;
+                matches.add(key);
+            }
+            assertEquals("The first keys starting with " + prefix + " should be listed.", matches, tree.startingWith(prefix, 5));
+        }
+        for(String key : new ArrayList<>(expected)) {
+            assertTrue(tree.remove(key));
+        }
+        assertTrue(tree.isEmpty());
+        assertTrue(tree.startingWith("", 10).isEmpty());
+    }
+}
@@ -2,6 +2,8 @@ package phonebook.utils;
 
 import phonebook.hashes.HashTable;
 
+import java.util.Arrays;
+
 /**
  * <p>{@link PrimeGenerator} is a simple <b>immutable</b> class which stores and retrieves <b>prime numbers</b>. Since
  * we use this class from within the context of {@link HashTable} instances, we implement
@@ -10,6 +12,9 @@ import phonebook.hashes.HashTable;
  * smaller than two times the current prime. This does <b>not</b> simply mean that the current index into our collection of primes
  * should be doubled, since primes are not uniformly distributed on the line of positive integers! </p>
  *
+ * <p>Small primes come straight from a stored list. Past its end, primes are found on demand with trial division and a
+ * deterministic Miller-Rabin test, so that tables can keep doubling up to 2^30 cells. </p>
+ *
  * <p><b>**** DO NOT EDIT THIS CLASS! ****** </b></p>
  *
  * @see HashTable
@@ -127,7 +132,20 @@ public class PrimeGenerator {
     };
 
     private static final int FIRST_INDEX = 3; // Selecting 7 as the first prime to return
-    private  int currIdx = FIRST_INDEX;
+    private static final int LARGEST_STORED_PRIME = PRIME_LIST[PRIME_LIST.length - 1];
+
+    /**
+     * The prime that a new {@link PrimeGenerator} starts from, i.e. the starting capacity of our hash tables.
+     */
+    public static final int FIRST_PRIME = PRIME_LIST[FIRST_INDEX];
+
+    // Hash tables index arrays with ints, so we stop growing at 2^30 cells. Beyond our stored list we
+    // compute primes on demand, and the bases below make Miller-Rabin deterministic for every n < 3,215,031,751.
+    private static final int MAX_PRIME_BOUND = 1 << 30;
+    private static final int TRIAL_DIVISORS = 25; // The primes up to 97.
+    private static final long[] MILLER_RABIN_BASES = {2, 3, 5, 7};
+
+    private int currPrime = PRIME_LIST[FIRST_INDEX];
 
     /**
      * Retrieves the prime number pointed to by internal storage. Without any calls to {@link #getNextPrime()} or {@link
@@ -136,32 +154,30 @@ public class PrimeGenerator {
      */
     public int getCurrPrime(){
 
-        assert (0 <= currIdx) && (currIdx < PRIME_LIST.length) :  "getCurrPrime(): Inconsistent internal index.";
+        assert isPrime(currPrime) :  "getCurrPrime(): Inconsistent internal prime " + currPrime + ".";
 
-        return PRIME_LIST[currIdx];
+        return currPrime;
     }
 
     /**
      * Returns the greatest prime <b>smaller than twice the current prime</b>. This is an approach that allows instances of
      * {@link HashTable} to find new hash table sizes which provide a good trade-off between memory footprint and making
-     * future insertions happen without resizing the table.
+     * future insertions happen without resizing the table. Primes beyond our stored list are computed on demand, up to
+     * 2^30.
      * @return The first prime number greater than twice the current prime number.
-     * @throws NoMorePrimesException If there is no such prime number to return from our list.
+     * @throws NoMorePrimesException If there is no such prime number that is at most 2^30.
      */
     public int getNextPrime() throws NoMorePrimesException {
 
-        assert (0 <= currIdx) && (currIdx < PRIME_LIST.length) :  "getNextPrime(): Inconsistent internal index.";
+        assert isPrime(currPrime) :  "getNextPrime(): Inconsistent internal prime " + currPrime + ".";
 
-        int currPrime = PRIME_LIST[currIdx];
-        for (int i = currIdx; i < PRIME_LIST.length; i++) {
-            if (PRIME_LIST[i] > 2 * currPrime) { // >= Doesn't make sense for primes, does it?
-                currIdx = i-1;
-                return PRIME_LIST[currIdx];
-            }
+        int nextPrime = primeAtOrBelow((int)Math.min(2L * currPrime - 1, MAX_PRIME_BOUND));
+        if(nextPrime <= currPrime) {
+            throw new NoMorePrimesException("getNextPrime(): Search for a prime greater than twice " +
+                    currPrime + " exceeded the maximum table size of " + MAX_PRIME_BOUND + ".");
         }
-
-        throw new NoMorePrimesException("getNextPrime(): Search for a prime greater than twice " +
-                currPrime + " exceeded storage of primes.");
+        currPrime = nextPrime;
+        return currPrime;
     }
 
 
@@ -174,9 +190,9 @@ public class PrimeGenerator {
      */
     public int getPreviousPrime() throws NoMorePrimesException {
 
-        assert (0 <= currIdx) && (currIdx < PRIME_LIST.length) :  "getPreviousPrime(): Inconsistent internal index.";
+        assert isPrime(currPrime) :  "getPreviousPrime(): Inconsistent internal prime " + currPrime + ".";
 
-        if(currIdx == 0){
+        if(currPrime == 2){
 
             // You might be perplexed as to why we assert an invariant in a scope where we only throw an exception.
             // We do this because if the invariant is violated, an AssertionError will be thrown, and this gives us information
@@ -193,15 +209,8 @@ public class PrimeGenerator {
 
             throw new NoMorePrimesException("getPreviousPrime(): 2 is the least prime number.");
         }
-        int currPrime = PRIME_LIST[currIdx];
-        for (int i = currIdx; i >= 0; i--) {
-            if (PRIME_LIST[i] < ((float)currPrime / 2)) { // "Less than or equal" (<=) doesn't make sense for primes, does it?
-                currIdx = i+1;
-                return PRIME_LIST[currIdx];
-            }
-        }
-        currIdx = 0; // Minimum prime selected will always be 2.
-        return 2;
+        currPrime = primeAtOrAbove(currPrime / 2 + 1); // Odd primes have no exact half, so this is "strictly larger".
+        return currPrime;
     }
 
 
@@ -209,7 +218,85 @@ public class PrimeGenerator {
      * Resets the {@link PrimeGenerator} instance, making the next call to {@link #getCurrPrime()} return 13.
      */
     public  void reset() {
-        currIdx = FIRST_INDEX;
+        currPrime = PRIME_LIST[FIRST_INDEX];
+    }
+
+    /* Returns the greatest prime that is at most n, assuming n >= 2. */
+    private static int primeAtOrBelow(int n) {
+        if(n <= LARGEST_STORED_PRIME) {
+            int idx = Arrays.binarySearch(PRIME_LIST, n);
+            return PRIME_LIST[idx >= 0 ? idx : -idx - 2]; // -idx - 1 is the insertion point, so step one back.
+        }
+        while(!isPrime(n)) {
+            n--;
+        }
+        return n;
+    }
+
+    /* Returns the least prime that is at least n, assuming n <= MAX_PRIME_BOUND. */
+    private static int primeAtOrAbove(int n) {
+        if(n <= LARGEST_STORED_PRIME) {
+            int idx = Arrays.binarySearch(PRIME_LIST, n);
+            return PRIME_LIST[idx >= 0 ? idx : -idx - 1];
+        }
+        while(!isPrime(n)) {
+            n++;
+        }
+        return n;
+    }
+
+    /* Trial division by the smallest stored primes weeds out most composites, and deterministic Miller-Rabin
+     * settles the rest. */
+    private static boolean isPrime(long n) {
+        if(n < 2) {
+            return false;
+        }
+        for(int i = 0; i < TRIAL_DIVISORS; i++) {
+            int p = PRIME_LIST[i];
+            if(n % p == 0) {
+                return n == p;
+            }
+            if((long)p * p > n) {
+                return true;
+            }
+        }
+        long d = n - 1;
+        int s = 0;
+        while((d & 1) == 0) {
+            d >>= 1;
+            s++;
+        }
+        for(long a : MILLER_RABIN_BASES) {
+            long x = modPow(a, d, n);
+            if(x == 1 || x == n - 1) {
+                continue;
+            }
+            boolean witness = true;
+            for(int r = 1; r < s && witness; r++) {
+                x = x * x % n;
+                if(x == n - 1) {
+                    witness = false;
+                }
+            }
+            if(witness) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Products stay below 2^62 since n < 2^31, so plain long arithmetic cannot overflow. */
+    private static long modPow(long base, long exp, long mod) {
+        long result = 1;
+        base %= mod;
+        while(exp > 0) {
+            if((exp & 1) == 1) {
+                result = result * base % mod;
+            }
+            base = base * base % mod;
+            exp >>= 1;
+        }
+        return result;
     }
 
 }
@@ -127,13 +127,12 @@ public class PrimeGeneratorTests {
         }
         assertNotNull("A call to getPreviousPrime() when getCurrentPrime() returns 2 should have thrown a NoMorePrimesException", rexc);
 
-        // The biggest prime number we store is 7907. We start making calls to getNextPrime() which will *more than double*
-        // the current prime number every time. 2^12 = 4096 and 2^13 = 8192. Without even looking at my list of primes
-        // I know that in at most 12 calls to getNextPrime() (the first one gives me 13) I am reaching a number that is definitely
-        // beyond my list of current primes.
+        // Primes past our stored list are computed on demand, but tables stop growing at 2^30 cells. Every call to
+        // getNextPrime() *almost* doubles the current prime, so 7 * 2^28 > 2^30 tells me that 40 calls are more than
+        // enough to run into the limit.
         rexc = null;
         int iterThrown = 0;
-        for(int i = 0; i < 15; i++){
+        for(int i = 0; i < 40; i++){
             // Embedding the try block inside the for loop makes the loop very slow, but allows for the index 'i' to be
             // visible to the scope of the catch-blocks. This in turn allows us to throw an AssertionError with information
             // about exactly *which* iteration failed.
@@ -148,6 +147,39 @@ public class PrimeGeneratorTests {
             }
         }
         assertNotNull("Was expecting a NoMorePrimesException after " + (iterThrown + 1) + " calls to getNextPrime()", rexc);
+        assertTrue("Expected the last prime before the limit to be at most 2^30, but got " + pg.getCurrPrime() + ".",
+                pg.getCurrPrime() <= (1 << 30));
+    }
+
+    /**
+     * Tests that {@link PrimeGenerator#getNextPrime()} and {@link PrimeGenerator#getPreviousPrime()} keep returning
+     * primes with the doubling and halving heuristics past the largest prime that we store, 7907.
+     */
+    @Test
+    public void testPrimesBeyondStoredList(){
+        int prev = pg.getCurrPrime();
+        for(int i = 0; i < 20; i++){
+            int next = pg.getNextPrime();
+            assertTrue("Call to getNextPrime() #" + (i + 1) + " returned the composite " + next + ".", isPrime(next));
+            assertTrue("Expected " + next + " to lie between " + prev + " and twice that.", prev < next && next < 2L * prev);
+            prev = next;
+        }
+        assertTrue("Expected 20 calls to getNextPrime() to go past 7907, but got " + prev + ".", prev > 7907);
+        for(int i = 0; i < 20; i++){
+            int next = pg.getPreviousPrime();
+            assertTrue("Call to getPreviousPrime() #" + (i + 1) + " returned the composite " + next + ".", isPrime(next));
+            assertTrue("Expected " + next + " to lie between half of " + prev + " and " + prev + ".",
+                    (float)prev / 2 < next && next < prev);
+            prev = next;
+        }
+    }
+
+    private static boolean isPrime(int n){
+        for(int d = 2; (long)d * d <= n; d++){
+            if(n % d == 0)
+                return false;
+        }
+        return n >= 2;
     }
 
     /**
@@ -15,9 +15,22 @@ public class Probes {
 
     private int probes;
 
+    private String previousValue;
+
     public Probes(String value, int probes) {
+        this(value, probes, null);
+    }
+
+    /**
+     * Constructor for insertions, which also report the value that the key was mapped to before.
+     * @param value The value inserted.
+     * @param probes The number of probes the insertion made.
+     * @param previousValue The value that the inserted value replaced, or {@code null} if the key was not there.
+     */
+    public Probes(String value, int probes, String previousValue) {
         this.value = value;
         this.probes = probes;
+        this.previousValue = previousValue;
     }
     @Override
     public boolean equals(Object o) {
@@ -48,4 +61,13 @@ public class Probes {
     public String getValue(){
         return value;
     }
+
+    /**
+     * Simple accessor for the value that an insertion replaced.
+     * @return The value that the key of an insertion was mapped to before the insertion, or {@code null} if
+     * the key was new, or if the operation was not an insertion.
+     */
+    public String getPreviousValue(){
+        return previousValue;
+    }
 }